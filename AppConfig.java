@@ -0,0 +1,76 @@
+package application;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+// AppConfig: settings read from an external properties file so the same build can point at
+// Oracle XE in the restaurant or an embedded H2 database (Oracle mode) on a laptop.
+// The file is looked up from -Drestaurant.config=<path>, falling back to ./restaurant.properties.
+// Missing keys fall back to the defaults passed in by the caller.
+public class AppConfig {
+
+    public static final String CONFIG_PROPERTY = "restaurant.config";
+    public static final String DEFAULT_FILE = "restaurant.properties";
+
+    private final Properties props;
+    private final Path source; // null when nothing was found on disk
+
+    private AppConfig(Properties props, Path source) {
+        this.props = props;
+        this.source = source;
+    }
+
+    public static AppConfig load() throws IOException {
+        Path path = Paths.get(System.getProperty(CONFIG_PROPERTY, DEFAULT_FILE));
+        Properties props = new Properties();
+        if (!Files.exists(path)) {
+            return new AppConfig(props, null);
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        }
+        return new AppConfig(props, path);
+    }
+
+    public static AppConfig of(Properties props) {
+        return new AppConfig(props, null);
+    }
+
+    public String describeSource() {
+        return source != null ? source.toAbsolutePath().toString() : "(built-in defaults)";
+    }
+
+    public String getString(String key, String def) {
+        // -D system properties win over the file so a single run can be redirected
+        String value = System.getProperty(key, props.getProperty(key));
+        return value != null && !value.trim().isEmpty() ? value.trim() : def;
+    }
+
+    public int getInt(String key, int def) {
+        String value = getString(key, null);
+        if (value == null) return def;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config key '" + key + "' must be an integer but was: " + value);
+        }
+    }
+
+    public long getLong(String key, long def) {
+        String value = getString(key, null);
+        if (value == null) return def;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config key '" + key + "' must be a number but was: " + value);
+        }
+    }
+
+    public boolean getBoolean(String key, boolean def) {
+        String value = getString(key, null);
+        return value == null ? def : Boolean.parseBoolean(value);
+    }
+}
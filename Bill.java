@@ -0,0 +1,55 @@
+package application;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+// Bill: an immutable, UI-independent copy of a finalized cart, handed to a BillWriter.
+// Built on the FX thread, written to the database on a background thread.
+//
+// Journaled bills (see BillJournal) also carry a client-generated ref, stored in bills.client_ref
+// so a replay after a crash can tell which bills already reached the database, and the time the
+// bill was finalized at the till. Bills without a ref are stamped with the database's SYSTIMESTAMP.
+public class Bill {
+
+    public static class Line {
+        public final String itemName;
+        public final double itemPrice;
+        public final int quantity;
+        public final double subtotal;
+
+        public Line(String itemName, double itemPrice, int quantity, double subtotal) {
+            this.itemName = itemName;
+            this.itemPrice = itemPrice;
+            this.quantity = quantity;
+            this.subtotal = subtotal;
+        }
+    }
+
+    private final String ref;          // null for bills written straight to the database
+    private final Timestamp billTime;  // null = use the database time
+    private final double totalAmount;
+    private final List<Line> lines;
+
+    public Bill(double totalAmount, List<Line> lines) {
+        this(null, null, totalAmount, lines);
+    }
+
+    public Bill(String ref, Timestamp billTime, double totalAmount, List<Line> lines) {
+        this.ref = ref;
+        this.billTime = billTime;
+        this.totalAmount = totalAmount;
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+    }
+
+    // A bill with a fresh idempotency ref, stamped with the current time
+    public static Bill journaled(double totalAmount, List<Line> lines) {
+        return new Bill(UUID.randomUUID().toString(), new Timestamp(System.currentTimeMillis()), totalAmount, lines);
+    }
+
+    public String getRef() { return ref; }
+    public Timestamp getBillTime() { return billTime; }
+    public double getTotalAmount() { return totalAmount; }
+    public List<Line> getLines() { return lines; }
+}
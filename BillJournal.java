@@ -0,0 +1,273 @@
+package application;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// BillJournal: local append-only write-ahead log of finalized bills. Checkout only waits for the
+// append (and fsync, depending on policy); JournalReplayer drains the journal into the bills and
+// orders tables in the background, so a database outage no longer loses sales.
+//
+// File layout (journal.dir):
+//   bills.journal       records: [int length][int crc32 of payload][payload]
+//   bills.journal.ckpt  offset of the first record not yet written to the database
+//
+// Settings:
+//   journal.fsync            always   - force to disk before checkout completes (default)
+//                            interval - force every journal.fsyncIntervalMs (may lose that window on power loss)
+//                            never    - leave it to the OS
+//   journal.compactBytes     once everything is replayed and the file is at least this big, it is truncated
+public class BillJournal implements AutoCloseable {
+
+    public enum FsyncPolicy { ALWAYS, INTERVAL, NEVER }
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024; // anything bigger is a corrupt length
+
+    // A journaled bill plus where it sits in the file
+    public static class Record {
+        public final long offset;
+        public final long nextOffset;
+        public final Bill bill;
+
+        Record(long offset, long nextOffset, Bill bill) {
+            this.offset = offset;
+            this.nextOffset = nextOffset;
+            this.bill = bill;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Path checkpointFile;
+    private final FsyncPolicy fsyncPolicy;
+    private final long compactBytes;
+    private final ScheduledExecutorService syncer; // only for INTERVAL
+    private long writePosition;
+    private long replayedOffset;
+    private boolean dirty; // appended since the last force()
+
+    public BillJournal(AppConfig config) throws IOException {
+        Path dir = Paths.get(config.getString("journal.dir", "journal"));
+        Files.createDirectories(dir);
+        this.fsyncPolicy = FsyncPolicy.valueOf(config.getString("journal.fsync", "always").toUpperCase());
+        this.compactBytes = config.getLong("journal.compactBytes", 64L * 1024 * 1024);
+        this.checkpointFile = dir.resolve("bills.journal.ckpt");
+        this.channel = FileChannel.open(dir.resolve("bills.journal"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        this.replayedOffset = readCheckpoint();
+        this.writePosition = recover();
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            long intervalMs = Math.max(1, config.getLong("journal.fsyncIntervalMs", 50));
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "bill-journal-fsync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::forceIfDirty, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    // Walk the unreplayed tail, stopping at the first torn or corrupt record (a crash mid-append),
+    // and cut the file there so new appends follow the last good record.
+    private long recover() throws IOException {
+        long size = channel.size();
+        if (replayedOffset > size) replayedOffset = 0; // checkpoint from before a compaction
+        long position = replayedOffset;
+        while (true) {
+            Record record = readRecord(position, size);
+            if (record == null) break;
+            position = record.nextOffset;
+        }
+        if (position < size) {
+            System.err.println("Bill journal: discarding " + (size - position) + " bytes of incomplete record at offset " + position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        return position;
+    }
+
+    public synchronized void append(Bill bill) throws IOException {
+        byte[] payload = encode(bill);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buf.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        long position = writePosition;
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+        writePosition = position;
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            channel.force(false);
+        } else {
+            dirty = true;
+        }
+        notifyAll(); // wake the replayer
+    }
+
+    // Up to max records starting at offset (normally replayedOffset()).
+    public synchronized List<Record> read(long offset, int max) throws IOException {
+        List<Record> records = new ArrayList<>();
+        long position = offset;
+        while (records.size() < max && position < writePosition) {
+            Record record = readRecord(position, writePosition);
+            if (record == null) {
+                throw new IOException("Bill journal is corrupt at offset " + position);
+            }
+            records.add(record);
+            position = record.nextOffset;
+        }
+        return records;
+    }
+
+    // Block until something past offset has been appended, or the timeout passes.
+    public synchronized void awaitAppend(long offset, long timeoutMs) throws InterruptedException {
+        if (writePosition <= offset) {
+            wait(timeoutMs);
+        }
+    }
+
+    public synchronized long replayedOffset() { return replayedOffset; }
+    public synchronized long pendingBytes() { return writePosition - replayedOffset; }
+
+    // Called by the replayer once everything before offset is committed in the database.
+    public synchronized void markReplayed(long offset) throws IOException {
+        if (offset <= replayedOffset) return;
+        if (offset == writePosition && writePosition >= compactBytes) {
+            // Fully drained and big enough to bother: start the file over
+            channel.truncate(0);
+            channel.force(true);
+            writePosition = 0;
+            offset = 0;
+        }
+        replayedOffset = offset;
+        writeCheckpoint(offset);
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) return 0;
+        byte[] bytes = Files.readAllBytes(checkpointFile);
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+
+    // Write-then-rename so a crash never leaves a half-written checkpoint
+    private void writeCheckpoint(long offset) throws IOException {
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.allocate(Long.BYTES).putLong(0, offset));
+            out.force(true);
+        }
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // null when there is no complete, checksum-valid record at position
+    private Record readRecord(long position, long limit) throws IOException {
+        if (position + HEADER_BYTES > limit) return null;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, position);
+        int length = header.getInt(0);
+        int checksum = header.getInt(4);
+        if (length <= 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > limit) return null;
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, position + HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        if ((int) crc.getValue() != checksum) return null;
+        return new Record(position, position + HEADER_BYTES + length, decode(payload));
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) throw new IOException("Unexpected end of bill journal");
+        }
+    }
+
+    // --- Record payload: ref, time, total, lines ---
+
+    private static byte[] encode(Bill bill) {
+        byte[] ref = bill.getRef().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> names = new ArrayList<>();
+        int size = 2 + ref.length + 8 + 8 + 4;
+        for (Bill.Line line : bill.getLines()) {
+            byte[] name = line.itemName.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 2 + name.length + 8 + 4 + 8;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putShort((short) ref.length).put(ref);
+        buf.putLong(bill.getBillTime().getTime());
+        buf.putDouble(bill.getTotalAmount());
+        buf.putInt(bill.getLines().size());
+        for (int i = 0; i < names.size(); i++) {
+            Bill.Line line = bill.getLines().get(i);
+            buf.putShort((short) names.get(i).length).put(names.get(i));
+            buf.putDouble(line.itemPrice);
+            buf.putInt(line.quantity);
+            buf.putDouble(line.subtotal);
+        }
+        return buf.array();
+    }
+
+    private static Bill decode(ByteBuffer buf) {
+        buf.flip();
+        String ref = readString(buf);
+        Timestamp billTime = new Timestamp(buf.getLong());
+        double total = buf.getDouble();
+        int count = buf.getInt();
+        List<Bill.Line> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = readString(buf);
+            double price = buf.getDouble();
+            int quantity = buf.getInt();
+            double subtotal = buf.getDouble();
+            lines.add(new Bill.Line(name, price, quantity, subtotal));
+        }
+        return new Bill(ref, billTime, total, lines);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private synchronized void forceIfDirty() {
+        if (!dirty) return;
+        try {
+            channel.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("Bill journal fsync failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (syncer != null) syncer.shutdownNow();
+        try {
+            if (fsyncPolicy != FsyncPolicy.NEVER) channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing bill journal: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package application;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+// BillWriter: persists finalized bills. The returned future completes with the new bill_id once
+// the bill and its order lines are committed, or exceptionally if the write failed.
+//
+//   bills.groupCommit=false (default) - DirectBillWriter, one transaction + commit per bill
+//   bills.groupCommit=true            - GroupCommitBillWriter, many bills per commit
+public interface BillWriter extends AutoCloseable {
+
+    CompletableFuture<Integer> submit(Bill bill);
+
+    @Override
+    void close();
+
+    static BillWriter create(AppConfig config, ConnectionPool pool, DbExecutor db) throws SQLException {
+        SequenceIdAllocator ids = SequenceIdAllocator.fromConfig(config, "bills", 50);
+        SalesSummary summary = config.getBoolean("sales.summaryTables", false) ? new SalesSummary() : null;
+        if (config.getBoolean("bills.groupCommit", false)) {
+            if (ids == null) {
+                throw new SQLException("bills.groupCommit=true needs bills.idSequence (see sql/002_bill_id_sequence.sql).");
+            }
+            return new GroupCommitBillWriter(pool, ids, summary,
+                    config.getInt("bills.groupCommit.maxBatch", 64),
+                    config.getLong("bills.groupCommit.maxDelayMs", 5),
+                    config.getInt("bills.groupCommit.queueCapacity", 10_000));
+        }
+        return new DirectBillWriter(db, ids, summary);
+    }
+}
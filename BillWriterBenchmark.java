@@ -0,0 +1,79 @@
+package application;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+// BillWriterBenchmark: bills/sec of the per-bill commit path vs group commit, on an embedded
+// H2 database (Oracle mode, file-backed so every COMMIT really reaches the disk).
+//
+//   java -cp <classes>:h2.jar application.BillWriterBenchmark [bills] [linesPerBill] [poolSize]
+//
+// A different database can be used with -Dbench.url=... -Dbench.user=... -Dbench.password=...
+// (the schema from sql/001 and sql/002 must then already exist).
+public class BillWriterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int bills = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int linesPerBill = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        String url = System.getProperty("bench.url");
+        boolean embedded = url == null;
+        if (embedded) {
+            Path dir = Files.createTempDirectory("billbench");
+            url = "jdbc:h2:" + dir.resolve("bench").toAbsolutePath() + ";MODE=Oracle";
+        }
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.user", System.getProperty("bench.user", "sa"));
+        props.setProperty("db.password", System.getProperty("bench.password", ""));
+        props.setProperty("pool.minSize", "1");
+        props.setProperty("pool.maxSize", String.valueOf(poolSize));
+        props.setProperty("bills.idSequence", "bill_id_seq");
+        props.setProperty("bills.idBlockSize", "50");
+        AppConfig config = AppConfig.of(props);
+
+        try (ConnectionPool pool = new ConnectionPool(config)) {
+            if (embedded) {
+                try (Connection conn = pool.getConnection()) {
+                    SqlScript.run(conn, Paths.get("sql", "001_schema.sql"));
+                    SqlScript.run(conn, Paths.get("sql", "002_bill_id_sequence.sql"));
+                }
+            }
+            System.out.printf("%,d bills x %d lines, pool of %d connections, %s%n", bills, linesPerBill, poolSize, url);
+
+            DbExecutor db = new DbExecutor(pool, Runnable::run);
+            SequenceIdAllocator ids = SequenceIdAllocator.fromConfig(config, "bills", 50);
+            run("warm-up (direct)", new DirectBillWriter(db, ids, null), Math.min(bills, 2_000), linesPerBill);
+            run("per-bill commit", new DirectBillWriter(db, ids, null), bills, linesPerBill);
+            for (int maxBatch : new int[]{16, 64, 256}) {
+                run("group commit, maxBatch=" + maxBatch,
+                        new GroupCommitBillWriter(pool, ids, null, maxBatch, 5, 10_000), bills, linesPerBill);
+            }
+            db.close();
+        }
+    }
+
+    private static void run(String label, BillWriter writer, int bills, int linesPerBill) {
+        List<Bill.Line> lines = new ArrayList<>();
+        for (int i = 0; i < linesPerBill; i++) {
+            lines.add(new Bill.Line("Item " + i, 120.0 + i, 2, 2 * (120.0 + i)));
+        }
+        Bill bill = new Bill(lines.stream().mapToDouble(l -> l.subtotal).sum(), lines);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Integer>> results = new ArrayList<>(bills);
+        for (int i = 0; i < bills; i++) {
+            results.add(writer.submit(bill));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        writer.close();
+        System.out.printf("  %-30s %,10.0f bills/sec  (%.2f s)%n", label, bills / seconds, seconds);
+    }
+}
@@ -0,0 +1,59 @@
+package application;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import java.util.HashMap;
+import java.util.Map;
+
+// Cart: the current order on a terminal. Lines are indexed by menu item id so adding an item
+// that is already in the cart is O(1), and the total is kept as exact cents, adjusted by the
+// change in each line's subtotal instead of re-summing every line. FX thread only.
+public class Cart {
+
+    private final ObservableList<Main.CartItem> items = FXCollections.observableArrayList();
+    private final Map<Integer, Main.CartItem> byId = new HashMap<>();
+    private final ReadOnlyLongWrapper totalCents = new ReadOnlyLongWrapper(0);
+
+    // One shared listener: whatever changes a line's subtotal (quantity edit, price change)
+    // moves the running total by exactly the difference.
+    private final ChangeListener<Number> subtotalListener =
+            (obs, oldVal, newVal) -> totalCents.set(totalCents.get() + newVal.longValue() - oldVal.longValue());
+
+    public ObservableList<Main.CartItem> getItems() { return items; }
+    public ReadOnlyLongProperty totalCentsProperty() { return totalCents.getReadOnlyProperty(); }
+    public long getTotalCents() { return totalCents.get(); }
+    public boolean isEmpty() { return items.isEmpty(); }
+
+    // Adds quantity to the existing line for this item, or starts a new line.
+    public void add(Main.MenuItem item, int quantity) {
+        Main.CartItem line = byId.get(item.getId());
+        if (line != null) {
+            line.setQuantity(line.getQuantity() + quantity);
+            return;
+        }
+        line = new Main.CartItem(item, quantity);
+        line.subtotalCentsProperty().addListener(subtotalListener);
+        byId.put(line.getId(), line);
+        items.add(line);
+        totalCents.set(totalCents.get() + line.getSubtotalCents());
+    }
+
+    public void remove(Main.CartItem line) {
+        if (byId.remove(line.getId(), line)) {
+            line.subtotalCentsProperty().removeListener(subtotalListener);
+            items.remove(line);
+            totalCents.set(totalCents.get() - line.getSubtotalCents());
+        }
+    }
+
+    public void clear() {
+        for (Main.CartItem line : items) {
+            line.subtotalCentsProperty().removeListener(subtotalListener);
+        }
+        byId.clear();
+        items.clear();
+        totalCents.set(0);
+    }
+}
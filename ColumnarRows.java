@@ -0,0 +1,221 @@
+package application;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+// ColumnarRows: the items of a TableView<Integer> whose data lives in column arrays
+// (OrderHistoryColumns, MenuColumns). Each item is a row number into those arrays; the table's
+// cell value factories read the arrays, so values are only wrapped in properties for the cells
+// on screen, and a row costs one int here instead of an object with a property per column.
+//
+// The list holds the visible rows, filtered and sorted on the client: a new filter or sort
+// order rebuilds one int[] from the arrays without re-querying the database. Sorting is a
+// stable merge sort on row numbers, so ties keep the store's order (newest first for history).
+// Rows appended to the store are filtered, sorted and merged in, which keeps the selection.
+// Changes must be made on the FX thread.
+public class ColumnarRows extends ObservableListBase<Integer> {
+
+    // Compares two row numbers by the values in their columns
+    @FunctionalInterface
+    public interface RowComparator {
+        int compare(int a, int b);
+
+        default RowComparator reversed() {
+            return (a, b) -> compare(b, a);
+        }
+
+        default RowComparator thenComparing(RowComparator next) {
+            return (a, b) -> {
+                int c = compare(a, b);
+                return c != 0 ? c : next.compare(a, b);
+            };
+        }
+    }
+
+    @FunctionalInterface
+    public interface RowFilter {
+        boolean test(int row);
+    }
+
+    private static final int INSERTION_SORT_MAX = 7;
+
+    private int[] view = new int[16]; // visible rows, in display order
+    private int size;
+    private int rowCount;             // rows in the store, visible or not
+    private RowFilter filter;         // null = every row
+    private RowComparator order;      // null = store order
+    private final Map<TableColumn<Integer, ?>, RowComparator> columnOrders = new HashMap<>();
+
+    @Override
+    public Integer get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        return view[index];
+    }
+
+    @Override
+    public int size() { return size; }
+
+    public int getRowCount() { return rowCount; }
+
+    public boolean isFiltered() { return filter != null; }
+
+    // Show rows through this list; clicking column headers sorts it with the orders from sortable()
+    public void attach(TableView<Integer> table) {
+        table.setItems(this);
+        table.setSortPolicy(t -> {
+            RowComparator combined = null;
+            for (TableColumn<Integer, ?> column : t.getSortOrder()) {
+                RowComparator ascending = columnOrders.get(column);
+                if (ascending == null) continue;
+                RowComparator c = column.getSortType() == TableColumn.SortType.DESCENDING ? ascending.reversed() : ascending;
+                combined = combined == null ? c : combined.thenComparing(c);
+            }
+            setOrder(combined);
+            return true;
+        });
+    }
+
+    // Ascending order of a column; columns without one can't be sorted
+    public void sortable(TableColumn<Integer, ?> column, RowComparator ascending) {
+        columnOrders.put(column, ascending);
+        column.setSortable(true);
+    }
+
+    public void setFilter(RowFilter filter) {
+        this.filter = filter;
+        rebuild();
+    }
+
+    // Same rows in a new order: reported as a permutation, so the table keeps its selection
+    public void setOrder(RowComparator order) {
+        if (order == null && this.order == null) return;
+        this.order = order;
+        int[] next = Arrays.copyOf(view, Math.max(16, size));
+        if (order != null) {
+            sort(next, 0, size, order);
+        } else {
+            Arrays.sort(next, 0, size); // store order
+        }
+        int[] position = new int[rowCount]; // row -> new index
+        for (int i = 0; i < size; i++) {
+            position[next[i]] = i;
+        }
+        int[] permutation = new int[size];  // old index -> new index
+        for (int i = 0; i < size; i++) {
+            permutation[i] = position[view[i]];
+        }
+        view = next;
+        if (size == 0) return;
+        beginChange();
+        nextPermutation(0, size, permutation);
+        endChange();
+    }
+
+    // The store was cleared or replaced and now holds rowCount rows
+    public void reset(int rowCount) {
+        this.rowCount = rowCount;
+        rebuild();
+    }
+
+    // Rows were appended to the store, which now holds newRowCount rows
+    public void rowsAdded(int newRowCount) {
+        int[] added = new int[newRowCount - rowCount];
+        int n = 0;
+        for (int row = rowCount; row < newRowCount; row++) {
+            if (filter == null || filter.test(row)) added[n++] = row;
+        }
+        rowCount = newRowCount;
+        if (n == 0) return;
+
+        int[] next = view.length >= size + n ? view : Arrays.copyOf(view, Math.max(size + n, size + (size >> 1)));
+        beginChange();
+        if (order == null) {
+            System.arraycopy(added, 0, next, size, n);
+            nextAdd(size, size + n);
+        } else {
+            // Merge from the back so next may be view itself; equal rows keep the older row first
+            sort(added, 0, n, order);
+            int[] addedAt = new int[n];
+            int i = size - 1, j = n - 1;
+            for (int out = size + n - 1; j >= 0; out--) {
+                if (i >= 0 && order.compare(view[i], added[j]) > 0) {
+                    next[out] = view[i--];
+                } else {
+                    addedAt[j] = out;
+                    next[out] = added[j--];
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                nextAdd(addedAt[k], addedAt[k] + 1);
+            }
+        }
+        view = next;
+        size += n;
+        endChange();
+    }
+
+    private void rebuild() {
+        int[] next = new int[Math.max(16, rowCount)];
+        int n = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (filter == null || filter.test(row)) next[n++] = row;
+        }
+        if (order != null) sort(next, 0, n, order);
+
+        int[] old = view;
+        int oldSize = size;
+        view = next;
+        size = n;
+        beginChange();
+        if (oldSize > 0) nextRemove(0, rows(old, oldSize));
+        if (n > 0) nextAdd(0, n);
+        endChange();
+    }
+
+    private static List<Integer> rows(int[] rows, int size) {
+        return new AbstractList<Integer>() {
+            @Override public Integer get(int index) { return rows[index]; }
+            @Override public int size() { return size; }
+        };
+    }
+
+    // Stable merge sort of rows[from, to), as in Arrays.sort for objects but without boxing
+    static void sort(int[] rows, int from, int to, RowComparator order) {
+        int[] aux = Arrays.copyOfRange(rows, from, to);
+        mergeSort(aux, rows, from, to, -from, order);
+    }
+
+    // Sorts dest[low, high) using src (which holds the same values at low + off) as scratch
+    private static void mergeSort(int[] src, int[] dest, int low, int high, int off, RowComparator order) {
+        int length = high - low;
+        if (length <= INSERTION_SORT_MAX) {
+            for (int i = low + 1; i < high; i++) {
+                for (int j = i; j > low && order.compare(dest[j - 1], dest[j]) > 0; j--) {
+                    int t = dest[j];
+                    dest[j] = dest[j - 1];
+                    dest[j - 1] = t;
+                }
+            }
+            return;
+        }
+        int destLow = low;
+        low += off;
+        high += off;
+        int mid = (low + high) >>> 1;
+        mergeSort(dest, src, low, mid, -off, order);
+        mergeSort(dest, src, mid, high, -off, order);
+
+        if (order.compare(src[mid - 1], src[mid]) <= 0) { // already in order
+            System.arraycopy(src, low, dest, destLow, length);
+            return;
+        }
+        for (int i = destLow, p = low, q = mid; i < destLow + length; i++) {
+            dest[i] = q >= high || p < mid && order.compare(src[p], src[q]) <= 0 ? src[p++] : src[q++];
+        }
+    }
+}
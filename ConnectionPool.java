@@ -0,0 +1,368 @@
+package application;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// ConnectionPool: a small built-in JDBC pool so every screen/terminal borrows its own connection
+// instead of sharing one. Borrowed connections are proxies; calling close() hands the physical
+// connection back to the pool (uncommitted work is rolled back first).
+//
+// Settings (all optional, see restaurant.properties):
+//   db.url, db.user, db.password
+//   pool.minSize, pool.maxSize          - connections kept warm / hard upper bound
+//   pool.borrowTimeoutMs                - how long getConnection() waits when all are in use
+//   pool.idleTimeoutMs                  - idle connections above minSize are closed after this
+//   pool.evictionIntervalMs             - how often the evictor runs
+//   pool.validationTimeoutSec           - timeout for the validation-on-borrow check
+//   pool.validationQuery                - optional query (e.g. "SELECT 1 FROM dual"); Connection.isValid() otherwise
+//   pool.statementCacheSize             - prepared statements kept open per connection (see StatementCache)
+public class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final int validationTimeoutSec;
+    private final String validationQuery;
+    private final int statementCacheSize;
+
+    // Most recently returned connection sits at the head, so hot connections get reused
+    // and cold ones drift to the tail where the evictor finds them.
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits; // one permit per connection that may be borrowed
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>(); // by physical connection
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    // --- Metrics ---
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanosTotal = new LongAdder();
+    private final AtomicLong borrowNanosMax = new AtomicLong();
+    private final LongAdder borrowTimeouts = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    // Process-wide, shared with the rest of the app (see Metrics)
+    private static final Metrics.Histogram BORROW_TIME = Metrics.global().timer("db.pool.borrow");
+    private static final Metrics.Histogram COMMIT_TIME = Metrics.global().timer("db.commit");
+    private static final Metrics.Counter ROLLBACKS = Metrics.global().counter("db.rollbacks");
+
+    private static class IdleConnection {
+        final Connection physical;
+        final long idleSinceMillis;
+
+        IdleConnection(Connection physical, long idleSinceMillis) {
+            this.physical = physical;
+            this.idleSinceMillis = idleSinceMillis;
+        }
+    }
+
+    public ConnectionPool(AppConfig config) throws SQLException {
+        this(config, true);
+    }
+
+    // failFast=false lets the app start while the database is down (bills go to the local
+    // journal); the evictor keeps trying to open minSize connections in the background.
+    public ConnectionPool(AppConfig config, boolean failFast) throws SQLException {
+        this.url = config.getString("db.url", "jdbc:oracle:thin:@localhost:1521:XE");
+        this.user = config.getString("db.user", "system");
+        this.password = config.getString("db.password", "");
+        this.maxSize = Math.max(1, config.getInt("pool.maxSize", 8));
+        this.minSize = Math.min(maxSize, Math.max(0, config.getInt("pool.minSize", 2)));
+        this.borrowTimeoutMs = config.getLong("pool.borrowTimeoutMs", 5000);
+        this.idleTimeoutMs = config.getLong("pool.idleTimeoutMs", 300_000);
+        this.validationTimeoutSec = config.getInt("pool.validationTimeoutSec", 2);
+        this.validationQuery = config.getString("pool.validationQuery", null);
+        this.statementCacheSize = Math.max(0, config.getInt("pool.statementCacheSize", 32));
+        this.permits = new Semaphore(maxSize, true);
+
+        // Open the minimum up front so a bad URL/password fails at startup, not on the first click
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idle.offerLast(new IdleConnection(createPhysical(), System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            if (failFast) {
+                closeIdle();
+                throw e;
+            }
+            System.err.println("Database unavailable at startup, continuing without it: " + e.getMessage());
+        }
+
+        long evictionIntervalMs = Math.max(1000, config.getLong("pool.evictionIntervalMs", 30_000));
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, evictionIntervalMs, evictionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public String getUrl() { return url; }
+    public int getMaxSize() { return maxSize; }
+
+    // Borrow a connection. Always use it in try-with-resources so it goes back to the pool.
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed.");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.increment();
+                throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMs
+                        + " ms waiting for a database connection (pool.maxSize=" + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            Connection physical = null;
+            IdleConnection candidate;
+            while (physical == null && (candidate = idle.pollFirst()) != null) {
+                if (isUsable(candidate.physical)) {
+                    physical = candidate.physical;
+                } else {
+                    validationFailures.increment();
+                    discard(candidate.physical);
+                }
+            }
+            if (physical == null) {
+                physical = createPhysical();
+            }
+            recordBorrow(System.nanoTime() - start);
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection createPhysical() throws SQLException {
+        Connection c = DriverManager.getConnection(url, user, password);
+        c.setAutoCommit(false); // Callers commit/rollback explicitly, same as the original single connection
+        if (statementCacheSize > 0) {
+            statementCaches.put(c, new StatementCache(c, statementCacheSize));
+        }
+        openCount.incrementAndGet();
+        createdCount.increment();
+        return c;
+    }
+
+    private boolean isUsable(Connection c) {
+        try {
+            if (c.isClosed()) return false;
+            if (validationQuery == null) {
+                return c.isValid(validationTimeoutSec);
+            }
+            try (Statement st = c.createStatement()) {
+                st.setQueryTimeout(validationTimeoutSec);
+                st.execute(validationQuery);
+            }
+            c.rollback();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection physical) {
+        boolean reusable = !closed;
+        if (reusable) {
+            try {
+                if (physical.isClosed()) {
+                    reusable = false;
+                } else if (physical.getAutoCommit()) {
+                    physical.setAutoCommit(false);
+                } else {
+                    physical.rollback(); // Never hand the next borrower someone else's half-done transaction
+                }
+            } catch (SQLException e) {
+                reusable = false;
+            }
+        }
+        if (reusable) {
+            idle.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+        } else {
+            discard(physical);
+        }
+        permits.release();
+    }
+
+    private void discard(Connection physical) {
+        openCount.decrementAndGet();
+        StatementCache statements = statementCaches.remove(physical);
+        if (statements != null) {
+            statements.closeAll();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    // Close connections that have sat idle too long (keeping minSize), then top back up to minSize.
+    private void evictIdle() {
+        if (closed) return;
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        Iterator<IdleConnection> it = idle.descendingIterator(); // oldest first
+        while (it.hasNext() && openCount.get() > minSize) {
+            IdleConnection ic = it.next();
+            if (ic.idleSinceMillis < cutoff && idle.remove(ic)) {
+                evictedCount.increment();
+                discard(ic.physical);
+            }
+        }
+        try {
+            while (!closed && openCount.get() < minSize && idle.size() < minSize) {
+                idle.offerLast(new IdleConnection(createPhysical(), System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            System.err.println("Connection pool could not refill to minSize: " + e.getMessage());
+        }
+    }
+
+    private void recordBorrow(long nanos) {
+        BORROW_TIME.record(nanos);
+        borrowCount.increment();
+        borrowNanosTotal.add(nanos);
+        long prev;
+        while (nanos > (prev = borrowNanosMax.get()) && !borrowNanosMax.compareAndSet(prev, nanos)) {
+            // retry until we win or someone else recorded a larger value
+        }
+    }
+
+    // Proxy that intercepts close() so try-with-resources returns the connection to the pool.
+    private Connection wrap(Connection physical) {
+        AtomicBoolean returned = new AtomicBoolean();
+        StatementCache statements = statementCaches.get(physical);
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                if (name.equals("equals")) return proxy == args[0];
+                if (name.equals("hashCode")) return System.identityHashCode(proxy);
+                return "Pooled[" + physical + "]";
+            }
+            if (name.equals("close")) {
+                if (returned.compareAndSet(false, true)) release(physical);
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned.get() || physical.isClosed();
+            }
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            if (name.equals("prepareStatement") && statements != null
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof String[]))) {
+                return statements.prepare((Connection) proxy, (String) args[0], args.length == 1 ? null : (String[]) args[1]);
+            }
+            if (name.equals("commit")) {
+                long start = System.nanoTime();
+                Object result = invoke(physical, method, args);
+                COMMIT_TIME.recordSince(start);
+                return result;
+            }
+            if (name.equals("rollback")) {
+                ROLLBACKS.increment();
+            }
+            return invoke(physical, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause(); // surface the real SQLException to callers
+        }
+    }
+
+    // --- Metrics snapshot ---
+
+    public Stats getStats() {
+        return new Stats(openCount.get(), idle.size(), maxSize - permits.availablePermits(),
+                permits.getQueueLength(), borrowCount.sum(), borrowNanosTotal.sum(), borrowNanosMax.get(),
+                borrowTimeouts.sum(), createdCount.sum(), evictedCount.sum(), validationFailures.sum());
+    }
+
+    public static class Stats {
+        public final int open;
+        public final int idle;
+        public final int inUse;
+        public final int waiting;
+        public final long borrows;
+        public final long borrowNanosTotal;
+        public final long borrowNanosMax;
+        public final long timeouts;
+        public final long created;
+        public final long evicted;
+        public final long validationFailures;
+
+        Stats(int open, int idle, int inUse, int waiting, long borrows, long borrowNanosTotal, long borrowNanosMax,
+              long timeouts, long created, long evicted, long validationFailures) {
+            this.open = open;
+            this.idle = idle;
+            this.inUse = inUse;
+            this.waiting = waiting;
+            this.borrows = borrows;
+            this.borrowNanosTotal = borrowNanosTotal;
+            this.borrowNanosMax = borrowNanosMax;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.evicted = evicted;
+            this.validationFailures = validationFailures;
+        }
+
+        public double avgBorrowMillis() {
+            return borrows == 0 ? 0.0 : borrowNanosTotal / (double) borrows / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("open=%d idle=%d inUse=%d waiting=%d borrows=%d avgBorrow=%.3fms maxBorrow=%.3fms "
+                            + "timeouts=%d created=%d evicted=%d validationFailures=%d",
+                    open, idle, inUse, waiting, borrows, avgBorrowMillis(), borrowNanosMax / 1_000_000.0,
+                    timeouts, created, evicted, validationFailures);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        closeIdle();
+    }
+
+    private void closeIdle() {
+        IdleConnection ic;
+        while ((ic = idle.pollFirst()) != null) {
+            discard(ic.physical);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package application;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// DbExecutor: runs blocking JDBC work off the JavaFX Application Thread.
+// Each task borrows a connection from the pool, and the result comes back as a CompletableFuture.
+// Callers hop back onto the FX thread with whenCompleteAsync(..., DbExecutor.FX).
+//
+// Uses virtual threads when the JVM has them (Java 21+); otherwise a small daemon pool sized to
+// the connection pool, since more threads than connections would only queue inside the pool.
+//
+// Named tasks are timed in Metrics as db.<operation> (borrow + work) and db.queueWait (submit to
+// start); a failed task counts as db.<operation>.failed, and on a pooled connection as one of
+// db.rollbacks, since the pool discards its uncommitted work.
+public class DbExecutor implements AutoCloseable {
+
+    // Executor that runs callbacks on the JavaFX Application Thread
+    public static final Executor FX = Platform::runLater;
+
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private final ConnectionPool pool;
+    private final ExecutorService executor;
+    private final Executor uiExecutor; // where busy-state changes are published
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+    private static final Metrics.Histogram QUEUE_WAIT = Metrics.global().timer("db.queueWait");
+    private static final Metrics.Counter ROLLBACKS = Metrics.global().counter("db.rollbacks");
+
+    public DbExecutor(ConnectionPool pool) {
+        this(pool, FX);
+    }
+
+    // For code that runs without a JavaFX toolkit (benchmarks, tools): pass Runnable::run
+    public DbExecutor(ConnectionPool pool, Executor uiExecutor) {
+        this.pool = pool;
+        this.uiExecutor = uiExecutor;
+        this.executor = newExecutor(pool.getMaxSize());
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            // Java 21+: one cheap virtual thread per task
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "db-worker-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // True while at least one database task is running; bind progress indicators to this.
+    public ReadOnlyBooleanProperty busyProperty() { return busy.getReadOnlyProperty(); }
+
+    // Run work on a pooled connection. The connection goes back to the pool when work returns;
+    // anything not committed by then is rolled back.
+    public <T> CompletableFuture<T> submit(String operation, SqlWork<T> work) {
+        return supply(operation, () -> {
+            try (Connection conn = pool.getConnection()) {
+                try {
+                    return work.run(conn);
+                } catch (SQLException | RuntimeException e) {
+                    ROLLBACKS.increment();
+                    throw e;
+                }
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        return submit("other", work);
+    }
+
+    @FunctionalInterface
+    public interface BlockingTask<T> {
+        T run() throws Exception;
+    }
+
+    // Run blocking work that manages its own connections, or needs none (e.g. local file I/O),
+    // on the data-access threads.
+    public <T> CompletableFuture<T> supply(String operation, BlockingTask<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Metrics.Histogram timer = Metrics.global().timer("db." + operation);
+        long submitted = System.nanoTime();
+        taskStarted();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                QUEUE_WAIT.record(started - submitted);
+                try {
+                    future.complete(work.run());
+                } catch (Throwable t) {
+                    Metrics.global().counter("db." + operation + ".failed").increment();
+                    future.completeExceptionally(t);
+                } finally {
+                    timer.recordSince(started);
+                    taskFinished();
+                }
+            });
+        } catch (RuntimeException e) { // rejected after shutdown
+            taskFinished();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public <T> CompletableFuture<T> supply(BlockingTask<T> work) {
+        return supply("other", work);
+    }
+
+    private void taskStarted() {
+        if (inFlight.getAndIncrement() == 0) uiExecutor.execute(this::refreshBusy);
+    }
+
+    private void taskFinished() {
+        if (inFlight.decrementAndGet() == 0) uiExecutor.execute(this::refreshBusy);
+    }
+
+    private void refreshBusy() {
+        busy.set(inFlight.get() > 0);
+    }
+
+    // Strip CompletionException/ExecutionException wrappers so alerts show the real SQL error.
+    public static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
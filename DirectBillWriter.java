@@ -0,0 +1,100 @@
+package application;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// DirectBillWriter: the original checkout path. Each bill is its own transaction:
+// INSERT bill, batch INSERT its order lines, COMMIT.
+public class DirectBillWriter implements BillWriter {
+
+    static final String INSERT_ORDER_SQL = "INSERT INTO orders (bill_id, item_name, item_price, quantity, subtotal) VALUES (?, ?, ?, ?, ?)";
+
+    static final Metrics.Histogram ORDER_LINES = Metrics.global().distribution("bill.orderLines", "lines");
+
+    private final DbExecutor db;
+    private final SequenceIdAllocator ids; // null = use the IDENTITY column
+    private final SalesSummary summary; // null = summary tables not maintained
+
+    public DirectBillWriter(DbExecutor db, SequenceIdAllocator ids, SalesSummary summary) {
+        this.db = db;
+        this.ids = ids;
+        this.summary = summary;
+    }
+
+    @Override
+    public CompletableFuture<Integer> submit(Bill bill) {
+        // Uncommitted work is rolled back by the pool when the connection is returned
+        return db.submit("bill.write", conn -> {
+            int billId = insertBill(conn, bill, ids);
+            try (PreparedStatement psOrder = conn.prepareStatement(INSERT_ORDER_SQL)) {
+                addOrderLines(psOrder, billId, bill);
+                psOrder.executeBatch(); // Execute all inserts at once
+                ORDER_LINES.record(bill.getLines().size());
+            }
+            if (summary != null) {
+                summary.record(conn, List.of(bill));
+            }
+            conn.commit();
+            return billId;
+        });
+    }
+
+    static int insertBill(Connection conn, Bill bill, SequenceIdAllocator ids) throws SQLException {
+        if (ids != null) {
+            int billId = ids.nextId(conn);
+            try (PreparedStatement psBill = conn.prepareStatement(insertBillSql(bill, true))) {
+                bindBill(psBill, billId, bill);
+                psBill.executeUpdate();
+            }
+            return billId;
+        }
+
+        // Using getGeneratedKeys for Oracle 12c+ IDENTITY columns to retrieve the auto-generated ID
+        try (PreparedStatement psBill = conn.prepareStatement(insertBillSql(bill, false), new String[]{"bill_id"})) {
+            bindBill(psBill, null, bill);
+            if (psBill.executeUpdate() > 0) {
+                try (ResultSet rs = psBill.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+        }
+        throw new SQLException("Could not generate bill ID. Check database logs.");
+    }
+
+    // Journaled bills carry their own time and client_ref; others take the database time.
+    static String insertBillSql(Bill bill, boolean explicitId) {
+        boolean journaled = bill.getRef() != null;
+        return "INSERT INTO bills (" + (explicitId ? "bill_id, " : "") + "bill_time, total_amount"
+                + (journaled ? ", client_ref" : "") + ") VALUES (" + (explicitId ? "?, " : "")
+                + (journaled ? "?, ?, ?)" : "SYSTIMESTAMP, ?)");
+    }
+
+    static void bindBill(PreparedStatement psBill, Integer billId, Bill bill) throws SQLException {
+        int i = 1;
+        if (billId != null) psBill.setInt(i++, billId);
+        if (bill.getRef() != null) psBill.setTimestamp(i++, bill.getBillTime());
+        psBill.setDouble(i++, bill.getTotalAmount());
+        if (bill.getRef() != null) psBill.setString(i, bill.getRef());
+    }
+
+    static void addOrderLines(PreparedStatement psOrder, int billId, Bill bill) throws SQLException {
+        for (Bill.Line line : bill.getLines()) {
+            psOrder.setInt(1, billId);
+            psOrder.setString(2, line.itemName);
+            psOrder.setDouble(3, line.itemPrice);
+            psOrder.setInt(4, line.quantity);
+            psOrder.setDouble(5, line.subtotal);
+            psOrder.addBatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        // Nothing buffered; in-flight bills finish when the DbExecutor shuts down
+    }
+}
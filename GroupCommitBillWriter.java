@@ -0,0 +1,194 @@
+package application;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// GroupCommitBillWriter: queues finalized bills and lets one writer thread flush them in
+// micro-batches, so many checkouts share a single COMMIT. A batch is flushed when it reaches
+// maxBatch bills or when the oldest queued bill has waited maxDelayMs, whichever comes first.
+//
+// Bill ids come from a pre-fetched sequence block (SequenceIdAllocator), so the bill and order
+// inserts can both be JDBC batches with no getGeneratedKeys round trip. Each bill's future
+// completes only after the COMMIT that made it durable.
+public class GroupCommitBillWriter implements BillWriter {
+
+    private static class Pending {
+        final Bill bill;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        Pending(Bill bill) {
+            this.bill = bill;
+        }
+    }
+
+    private static final Metrics.Histogram BATCH_TIME = Metrics.global().timer("db.bill.groupCommit");
+    private static final Metrics.Histogram BATCH_BILLS = Metrics.global().distribution("bill.groupCommit.bills", "bills");
+    private static final Metrics.Counter ROLLBACKS = Metrics.global().counter("db.rollbacks");
+    private static final Metrics.Counter RETRIES = Metrics.global().counter("bill.groupCommit.retries");
+
+    private final ConnectionPool pool;
+    private final SequenceIdAllocator ids;
+    private final SalesSummary summary; // null = summary tables not maintained
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public GroupCommitBillWriter(ConnectionPool pool, SequenceIdAllocator ids, SalesSummary summary,
+                                 int maxBatch, long maxDelayMs, int queueCapacity) {
+        this.pool = pool;
+        this.ids = ids;
+        this.summary = summary;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMs));
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.maxBatch, queueCapacity));
+        this.writer = new Thread(this::run, "bill-group-commit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public CompletableFuture<Integer> submit(Bill bill) {
+        Pending pending = new Pending(bill);
+        if (closed) {
+            pending.result.completeExceptionally(new SQLException("Bill writer is shut down."));
+            return pending.result;
+        }
+        try {
+            queue.put(pending); // Blocks only if the database has fallen queueCapacity bills behind
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result.completeExceptionally(e);
+            return pending.result;
+        }
+        // close() may have run since the check above, and its last drain may already be done:
+        // a bill still queued then would wait forever, so take it back and fail it here
+        if (closed && queue.remove(pending)) {
+            pending.result.completeExceptionally(new SQLException("Bill writer is shut down."));
+        }
+        return pending.result;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Gather more bills until the batch is full or the first one has waited long enough
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) continue;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            failRemaining(batch);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            int[] billIds = writeBatch(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(billIds[i]);
+            }
+        } catch (SQLException e) {
+            // One bad bill must not sink the whole batch: retry each on its own transaction
+            System.err.println("Group commit of " + batch.size() + " bills failed, retrying individually: " + e.getMessage());
+            RETRIES.increment();
+            for (Pending pending : batch) {
+                try {
+                    pending.result.complete(writeBatch(List.of(pending))[0]);
+                } catch (SQLException single) {
+                    pending.result.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    // One transaction for the whole batch. Uncommitted work is rolled back when the connection
+    // goes back to the pool, so a failure here leaves nothing behind.
+    private int[] writeBatch(List<Pending> batch) throws SQLException {
+        // All bills in a JDBC batch share one statement, so journaled and plain bills can't mix
+        // (never happens in practice; if it does, the per-bill retry sorts it out)
+        boolean journaled = batch.get(0).bill.getRef() != null;
+        String insertBillSql = DirectBillWriter.insertBillSql(batch.get(0).bill, true);
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement psBill = conn.prepareStatement(insertBillSql);
+             PreparedStatement psOrder = conn.prepareStatement(DirectBillWriter.INSERT_ORDER_SQL)) {
+            int[] billIds = new int[batch.size()];
+            int lines = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                Bill bill = batch.get(i).bill;
+                if ((bill.getRef() != null) != journaled) {
+                    throw new SQLException("Journaled and non-journaled bills in one batch.");
+                }
+                billIds[i] = ids.nextId(conn);
+                DirectBillWriter.bindBill(psBill, billIds[i], bill);
+                psBill.addBatch();
+                DirectBillWriter.addOrderLines(psOrder, billIds[i], bill);
+                lines += bill.getLines().size();
+            }
+            psBill.executeBatch();
+            psOrder.executeBatch();
+            if (summary != null) {
+                List<Bill> bills = new ArrayList<>(batch.size());
+                for (Pending pending : batch) {
+                    bills.add(pending.bill);
+                }
+                summary.record(conn, bills); // Whole batch folded into a few summary rows
+            }
+            conn.commit();
+            BATCH_TIME.recordSince(start);
+            BATCH_BILLS.record(batch.size());
+            DirectBillWriter.ORDER_LINES.record(lines);
+            return billIds;
+        } catch (SQLException | RuntimeException e) {
+            ROLLBACKS.increment(); // nothing was committed; the pool rolls the batch back
+            throw e;
+        }
+    }
+
+    private void failRemaining(List<Pending> batch) {
+        List<Pending> leftovers = new ArrayList<>(batch);
+        queue.drainTo(leftovers);
+        for (Pending pending : leftovers) {
+            pending.result.completeExceptionally(new SQLException("Bill writer stopped before this bill was written."));
+        }
+    }
+
+    // Flushes everything already queued, then stops the writer thread.
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+        failRemaining(new ArrayList<>()); // Anything submitted after the writer's last pass
+    }
+}
@@ -0,0 +1,178 @@
+package application;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+// HistorySearchBenchmark: order history searches (OrderHistoryPager.Filter) on a generated
+// history in an embedded H2 database (Oracle mode), before and after the indexes from
+// sql/007_order_history_indexes.sql. Each search fetches a first page as the admin tab does;
+// times are the median and worst of several runs. Also measures how soon a cancelled search
+// returns its connection.
+//
+//   java -cp <classes>:h2.jar application.HistorySearchBenchmark [bills] [linesPerBill]
+//
+// A different database can be used with -Dbench.url=... -Dbench.user=... -Dbench.password=...
+// (the schema from sql/001 must then already exist, without the 007 indexes; orders and bills are emptied).
+public class HistorySearchBenchmark {
+
+    private static final int ITEMS = 300;
+    private static final long START = Timestamp.valueOf("2023-01-01 00:00:00").getTime();
+    private static final long SPAN = 2 * 365 * 86_400_000L; // bills spread over two years
+
+    public static void main(String[] args) throws Exception {
+        int bills = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int linesPerBill = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        String url = System.getProperty("bench.url");
+        boolean embedded = url == null;
+        if (embedded) {
+            Path dir = Files.createTempDirectory("historysearch");
+            url = "jdbc:h2:" + dir.resolve("bench").toAbsolutePath() + ";MODE=Oracle;QUERY_CACHE_SIZE=0;OPTIMIZE_REUSE_RESULTS=0"; // time the queries, not H2's result reuse
+        }
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.user", System.getProperty("bench.user", "sa"));
+        props.setProperty("db.password", System.getProperty("bench.password", ""));
+        props.setProperty("pool.minSize", "1");
+        props.setProperty("pool.maxSize", "2");
+        props.setProperty("history.queryTimeoutSec", "0");
+        AppConfig config = AppConfig.of(props);
+        OrderHistoryPager pager = new OrderHistoryPager(config);
+
+        try (ConnectionPool pool = new ConnectionPool(config); Connection conn = pool.getConnection()) {
+            if (embedded) SqlScript.run(conn, Paths.get("sql", "001_schema.sql"));
+            long start = System.nanoTime();
+            generate(conn, bills, linesPerBill);
+            System.out.printf("%,d bills, %,d order lines generated in %.1f s, %s%n", bills, (long) bills * linesPerBill,
+                    (System.nanoTime() - start) / 1e9, url);
+
+            Map<String, OrderHistoryPager.Filter> searches = searches(bills);
+            System.out.println("without indexes (median / worst of 3):");
+            for (Map.Entry<String, OrderHistoryPager.Filter> e : searches.entrySet()) {
+                time(pager, conn, e.getKey(), e.getValue(), 3);
+            }
+            start = System.nanoTime();
+            SqlScript.run(conn, Paths.get("sql", "007_order_history_indexes.sql"));
+            System.out.printf("sql/007 indexes built in %.1f s%n", (System.nanoTime() - start) / 1e9);
+            System.out.println("with indexes (median / worst of 21):");
+            for (Map.Entry<String, OrderHistoryPager.Filter> e : searches.entrySet()) {
+                time(pager, conn, e.getKey(), e.getValue(), 21);
+            }
+            props.setProperty("history.searchWindowBills", "0");
+            cancelDemo(pool, new OrderHistoryPager(AppConfig.of(props)));
+        }
+    }
+
+    private static Map<String, OrderHistoryPager.Filter> searches(int bills) {
+        Timestamp dayStart = new Timestamp(START + SPAN / 2);
+        Timestamp dayEnd = new Timestamp(dayStart.getTime() + 86_400_000L);
+        Map<String, OrderHistoryPager.Filter> searches = new LinkedHashMap<>();
+        searches.put("newest page, no filter", OrderHistoryPager.Filter.NONE);
+        searches.put("bill id", new OrderHistoryPager.Filter(bills / 3, null, null, null, null, null));
+        searches.put("item prefix, 1 item", new OrderHistoryPager.Filter(null, "Item 123", null, null, null, null));
+        searches.put("item prefix, 11 items", new OrderHistoryPager.Filter(null, "Item 29", null, null, null, null));
+        searches.put("item prefix, 111 items", new OrderHistoryPager.Filter(null, "Item 1", null, null, null, null));
+        searches.put("item prefix, none match", new OrderHistoryPager.Filter(null, "Pizza", null, null, null, null));
+        searches.put("one day", new OrderHistoryPager.Filter(null, null, dayStart, dayEnd, null, null));
+        searches.put("one day + item prefix", new OrderHistoryPager.Filter(null, "Item 2", dayStart, dayEnd, null, null));
+        searches.put("bill total range", new OrderHistoryPager.Filter(null, null, null, null,
+                new BigDecimal("500.00"), new BigDecimal("600.00")));
+        searches.put("bill total range, narrow", new OrderHistoryPager.Filter(null, null, null, null,
+                new BigDecimal("1500.00"), new BigDecimal("1505.00")));
+        searches.put("bill total range, none match", new OrderHistoryPager.Filter(null, null, null, null,
+                new BigDecimal("999999.00"), null));
+        searches.put("one day + bill total range", new OrderHistoryPager.Filter(null, null, dayStart, dayEnd,
+                new BigDecimal("500.00"), new BigDecimal("900.00")));
+        return searches;
+    }
+
+    private static void generate(Connection conn, int bills, int linesPerBill) throws SQLException {
+        try (PreparedStatement clear = conn.prepareStatement("DELETE FROM orders")) {
+            clear.executeUpdate();
+        }
+        try (PreparedStatement clear = conn.prepareStatement("DELETE FROM bills")) {
+            clear.executeUpdate();
+        }
+        conn.commit();
+        try (PreparedStatement bill = conn.prepareStatement("INSERT INTO bills (bill_id, bill_time, total_amount) VALUES (?, ?, ?)");
+             PreparedStatement line = conn.prepareStatement(
+                     "INSERT INTO orders (bill_id, item_name, item_price, quantity, subtotal) VALUES (?, ?, ?, ?, ?)")) {
+            for (int b = 1; b <= bills; b++) {
+                long totalCents = 0;
+                for (int l = 0; l < linesPerBill; l++) {
+                    int item = (int) ((b * 7919L + l * 104_729L) % ITEMS) + 1;
+                    long price = 5_000 + item * 100L;
+                    int quantity = 1 + (b + l) % 3;
+                    line.setInt(1, b);
+                    line.setString(2, String.format("Item %03d", item));
+                    line.setBigDecimal(3, BigDecimal.valueOf(price, 2));
+                    line.setInt(4, quantity);
+                    line.setBigDecimal(5, BigDecimal.valueOf(price * quantity, 2));
+                    line.addBatch();
+                    totalCents += price * quantity;
+                }
+                bill.setInt(1, b);
+                bill.setTimestamp(2, new Timestamp(START + SPAN * b / bills));
+                bill.setBigDecimal(3, BigDecimal.valueOf(totalCents, 2));
+                bill.addBatch();
+                if (b % 5_000 == 0 || b == bills) {
+                    bill.executeBatch();
+                    line.executeBatch();
+                    conn.commit();
+                }
+            }
+        }
+    }
+
+    private static void time(OrderHistoryPager pager, Connection conn, String label, OrderHistoryPager.Filter filter, int runs)
+            throws SQLException {
+        long[] nanos = new long[runs];
+        int rows = 0;
+        for (int r = 0; r < runs; r++) {
+            long start = System.nanoTime();
+            OrderHistoryPager.Page page = pager.fetch(conn, filter, null, null);
+            nanos[r] = System.nanoTime() - start;
+            rows = page.rows.size();
+            conn.commit();
+        }
+        Arrays.sort(nanos);
+        System.out.printf("  %-32s %9.1f ms %9.1f ms  %4d rows on page 1%n", label,
+                nanos[runs / 2] / 1e6, nanos[runs - 1] / 1e6, rows);
+    }
+
+    // A search that sorts every line (an item prefix they all have, with no window to find them
+    // in first) is cancelled while it runs, as typing on does
+    private static void cancelDemo(ConnectionPool pool, OrderHistoryPager pager) throws Exception {
+        OrderHistoryPager.Filter slow = new OrderHistoryPager.Filter(null, "Item", null, null, null, null);
+        OrderHistoryPager.Cancellation cancel = new OrderHistoryPager.Cancellation();
+        CompletableFuture<OrderHistoryPager.Page> search = CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = pool.getConnection()) {
+                return pager.fetch(conn, slow, null, cancel);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        long start = System.nanoTime();
+        cancel.cancel();
+        String outcome;
+        try {
+            search.get();
+            outcome = "finished before the cancel";
+        } catch (ExecutionException e) {
+            outcome = "cancelled: " + e.getCause().getCause().getMessage().split("\n")[0];
+        }
+        System.out.printf("cancel: returned %.1f ms after cancel() (%s)%n", (System.nanoTime() - start) / 1e6, outcome);
+    }
+}
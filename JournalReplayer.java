@@ -0,0 +1,138 @@
+package application;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// JournalReplayer: background thread that drains BillJournal into the database through the
+// configured BillWriter, then advances the journal checkpoint past what was committed.
+//
+// Replay is idempotent: each bill carries a client_ref (unique in the bills table). Whenever we
+// can't be sure whether a previous attempt committed - after a restart or a failed batch - the
+// refs are looked up first and bills already in the database are skipped.
+//
+//   journal.replayBatch      - bills read from the journal per pass
+//   journal.retryDelayMs     - first back-off while the database is unreachable (doubles up to 30 s)
+public class JournalReplayer implements AutoCloseable {
+
+    private static final Metrics.Histogram REPLAY_TIME = Metrics.global().timer("journal.replay");
+    private static final Metrics.Histogram REPLAY_BILLS = Metrics.global().distribution("journal.replay.bills", "bills");
+    private static final Metrics.Counter REPLAY_PAUSES = Metrics.global().counter("journal.replay.paused");
+
+    private final BillJournal journal;
+    private final BillWriter writer;
+    private final ConnectionPool pool;
+    private final int batchSize;
+    private final long retryDelayMs;
+    private final Thread thread;
+    private final Object wakeup = new Object(); // back-off sleeps wait on this so close() is prompt
+    private volatile boolean running = true;
+    private volatile long replayedBills;
+    private boolean uncertain = true; // start of day: the last run may have died mid-batch
+
+    public JournalReplayer(AppConfig config, BillJournal journal, BillWriter writer, ConnectionPool pool) {
+        this.journal = journal;
+        this.writer = writer;
+        this.pool = pool;
+        this.batchSize = Math.max(1, config.getInt("journal.replayBatch", 256));
+        this.retryDelayMs = Math.max(10, config.getLong("journal.retryDelayMs", 1000));
+        this.thread = new Thread(this::run, "bill-journal-replayer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public long getReplayedBills() { return replayedBills; }
+
+    private void run() {
+        long delay = retryDelayMs;
+        while (running) {
+            try {
+                long from = journal.replayedOffset();
+                List<BillJournal.Record> records = journal.read(from, batchSize);
+                if (records.isEmpty()) {
+                    journal.awaitAppend(from, 500);
+                    continue;
+                }
+                long start = System.nanoTime();
+                replay(records);
+                REPLAY_TIME.recordSince(start);
+                REPLAY_BILLS.record(records.size());
+                delay = retryDelayMs;
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                uncertain = true;
+                REPLAY_PAUSES.increment();
+                System.err.println("Bill journal replay paused (" + journal.pendingBytes() + " bytes pending), retrying in "
+                        + delay + " ms: " + DbExecutor.unwrap(e).getMessage());
+                try {
+                    synchronized (wakeup) {
+                        if (running) wakeup.wait(delay);
+                    }
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                delay = Math.min(delay * 2, 30_000);
+            }
+        }
+    }
+
+    private void replay(List<BillJournal.Record> records) throws Exception {
+        List<BillJournal.Record> toWrite = uncertain ? skipAlreadyWritten(records) : records;
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>(toWrite.size());
+        for (BillJournal.Record record : toWrite) {
+            results.add(writer.submit(record.bill));
+        }
+
+        // Advance only over the unbroken run of committed bills; anything after a failure is retried
+        long committedUpTo = records.get(0).offset;
+        int next = 0;
+        for (BillJournal.Record record : records) {
+            if (next < toWrite.size() && toWrite.get(next) == record) {
+                try {
+                    results.get(next++).join();
+                } catch (RuntimeException e) {
+                    journal.markReplayed(committedUpTo);
+                    throw e;
+                }
+                replayedBills++;
+            }
+            committedUpTo = record.nextOffset;
+        }
+        journal.markReplayed(committedUpTo);
+        uncertain = false;
+    }
+
+    private List<BillJournal.Record> skipAlreadyWritten(List<BillJournal.Record> records) throws SQLException {
+        List<BillJournal.Record> missing = new ArrayList<>(records.size());
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM bills WHERE client_ref = ?")) {
+            for (BillJournal.Record record : records) {
+                ps.setString(1, record.bill.getRef());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) missing.add(record);
+                }
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public void close() {
+        // No interrupt: it would close the journal's FileChannel under the replayer's feet
+        running = false;
+        synchronized (wakeup) {
+            wakeup.notifyAll();
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
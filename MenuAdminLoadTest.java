@@ -0,0 +1,135 @@
+package application;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// MenuAdminLoadTest: several admins adding menu items at once, each insert its own transaction
+// as on the admin screen. Compares the original MAX(id) + 1 code with MenuStore, with and
+// without the prepared-statement cache, on an embedded H2 database (Oracle mode).
+// Reports items/sec, inserts that failed, and checks that every committed id is unique.
+//
+//   java -cp <classes>:h2.jar application.MenuAdminLoadTest [admins] [itemsPerAdmin]
+//
+// A different database can be used with -Dbench.url=... -Dbench.user=... -Dbench.password=...
+// (the schema from sql/001 and sql/005 must then already exist; the menu table is emptied).
+public class MenuAdminLoadTest {
+
+    @FunctionalInterface
+    private interface Insert {
+        void run(Connection conn, String name, double price) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int admins = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int itemsPerAdmin = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        String url = System.getProperty("bench.url");
+        boolean embedded = url == null;
+        if (embedded) {
+            Path dir = Files.createTempDirectory("menuload");
+            url = "jdbc:h2:" + dir.resolve("bench").toAbsolutePath() + ";MODE=Oracle";
+        }
+        System.out.printf("%d admins x %,d items, %s%n", admins, itemsPerAdmin, url);
+
+        SequenceIdAllocator sequence = new SequenceIdAllocator("menu_id_seq", 20);
+        for (int cacheSize : new int[]{0, 32}) {
+            try (ConnectionPool pool = new ConnectionPool(config(url, admins, cacheSize))) {
+                if (embedded && cacheSize == 0) {
+                    try (Connection conn = pool.getConnection()) {
+                        SqlScript.run(conn, Paths.get("sql", "001_schema.sql"));
+                        SqlScript.run(conn, Paths.get("sql", "005_menu_id_sequence.sql"));
+                    }
+                }
+                String cache = cacheSize == 0 ? "no statement cache" : "statement cache";
+                run(pool, "warm-up", MenuAdminLoadTest::insertOriginal, admins, Math.min(itemsPerAdmin, 200));
+                run(pool, "original MAX+1, " + cache, MenuAdminLoadTest::insertOriginal, admins, itemsPerAdmin);
+                MenuStore maxPlusOne = new MenuStore(null);
+                run(pool, "MAX+1 with retry, " + cache, maxPlusOne::insert, admins, itemsPerAdmin);
+                MenuStore sequenced = new MenuStore(sequence);
+                run(pool, "sequence blocks, " + cache, sequenced::insert, admins, itemsPerAdmin);
+            }
+        }
+    }
+
+    private static AppConfig config(String url, int poolSize, int statementCacheSize) {
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.user", System.getProperty("bench.user", "sa"));
+        props.setProperty("db.password", System.getProperty("bench.password", ""));
+        props.setProperty("pool.minSize", "1");
+        props.setProperty("pool.maxSize", String.valueOf(poolSize));
+        props.setProperty("pool.statementCacheSize", String.valueOf(statementCacheSize));
+        return AppConfig.of(props);
+    }
+
+    // addMenuItem() before MenuStore: read MAX(id) + 1, then INSERT, no retry
+    private static void insertOriginal(Connection conn, String name, double price) throws SQLException {
+        int nextId = 1;
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT NVL(MAX(id), 0) + 1 FROM menu")) {
+            if (rs.next()) {
+                nextId = rs.getInt(1);
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO menu (id, name, price) VALUES (?, ?, ?)")) {
+            ps.setInt(1, nextId);
+            ps.setString(2, name);
+            ps.setDouble(3, price);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void run(ConnectionPool pool, String label, Insert insert, int admins, int itemsPerAdmin) throws Exception {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM menu");
+            conn.commit();
+        }
+        Metrics.Counter hits = Metrics.global().counter("db.statementCache.hits");
+        long hitsBefore = hits.getCount();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(admins);
+        List<Future<?>> done = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int a = 0; a < admins; a++) {
+            int admin = a;
+            done.add(threads.submit(() -> {
+                for (int i = 0; i < itemsPerAdmin; i++) {
+                    try (Connection conn = pool.getConnection()) {
+                        insert.run(conn, "Item " + admin + "-" + i, 100 + i % 50);
+                        conn.commit();
+                    } catch (SQLException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) {
+            f.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        threads.shutdown();
+
+        int rows, distinct;
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*), COUNT(DISTINCT id) FROM menu")) {
+            rs.next();
+            rows = rs.getInt(1);
+            distinct = rs.getInt(2);
+        }
+        System.out.printf("  %-38s %,9.0f items/sec  %,6d failed  %,8d cache hits  %s%n", label, rows / seconds,
+                failed.get(), hits.getCount() - hitsBefore,
+                rows == distinct && rows + failed.get() == admins * itemsPerAdmin ? "ok" : "ID MISMATCH");
+    }
+}
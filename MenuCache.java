@@ -0,0 +1,154 @@
+package application;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// MenuCache: one in-memory copy of the menu table, keyed by item id, shared by the ordering
+// screen and the admin portal. Readers get an immutable Snapshot; every change publishes a new
+// snapshot with a higher version and notifies listeners (on the thread that made the change).
+//
+// The database is only read by reload(); admin add/update/delete push their committed row
+// through put()/remove() so every screen sees the edit without re-querying. A put()/remove()
+// made while reload() is reading may be missing from what it read, so reload() applies those
+// changes again on top before it publishes.
+public class MenuCache {
+
+    public static final class Entry {
+        public final int id;
+        public final String name;
+        public final double price;
+
+        public Entry(int id, String name, double price) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+        }
+    }
+
+    public static final class Snapshot {
+        public final long version;
+        private final Map<Integer, Entry> byId; // sorted by id, never modified after construction
+
+        Snapshot(long version, Map<Integer, Entry> byId) {
+            this.version = version;
+            this.byId = Collections.unmodifiableMap(byId);
+        }
+
+        public Entry get(int id) { return byId.get(id); }
+        public Collection<Entry> items() { return byId.values(); } // in id order
+        public int size() { return byId.size(); }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(0, new TreeMap<>());
+
+    // A put() (entry set) or remove() (entry null) as the version it published
+    private static final class Change {
+        final long version;
+        final int id;
+        final Entry entry;
+
+        Change(long version, int id, Entry entry) {
+            this.version = version;
+            this.id = id;
+            this.entry = entry;
+        }
+    }
+
+    private volatile Snapshot current = EMPTY;
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private int reloading;                                   // reload() calls reading the table; guarded by this
+    private final List<Change> changes = new ArrayList<>();  // put()/remove() while reloading > 0; guarded by this
+
+    public Snapshot snapshot() { return current; }
+
+    // True once the menu has been read from the database at least once.
+    public boolean isLoaded() { return current != EMPTY; }
+
+    public void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    // Replace the whole cache with what is in the menu table now. Runs on a data-access thread.
+    public Snapshot reload(Connection conn) throws SQLException {
+        long readFrom;
+        synchronized (this) {
+            readFrom = current.version;
+            reloading++;
+        }
+        Map<Integer, Entry> byId = new TreeMap<>();
+        try {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id, name, price FROM menu ORDER BY id")) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    byId.put(id, new Entry(id, rs.getString("name"), rs.getDouble("price")));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                endReload();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            for (Change change : changes) {
+                if (change.version <= readFrom) continue;
+                if (change.entry != null) {
+                    byId.put(change.id, change.entry);
+                } else {
+                    byId.remove(change.id);
+                }
+            }
+            endReload();
+            return publish(byId);
+        }
+    }
+
+    private void endReload() {
+        if (--reloading == 0) changes.clear();
+    }
+
+    // Call after an insert/update has been committed.
+    public Snapshot put(Entry entry) {
+        synchronized (this) {
+            Map<Integer, Entry> byId = new TreeMap<>(current.byId);
+            byId.put(entry.id, entry);
+            return logged(publish(byId), entry.id, entry);
+        }
+    }
+
+    // Call after a delete has been committed.
+    public Snapshot remove(int id) {
+        synchronized (this) {
+            Map<Integer, Entry> byId = new TreeMap<>(current.byId);
+            byId.remove(id);
+            return logged(publish(byId), id, null);
+        }
+    }
+
+    private Snapshot logged(Snapshot published, int id, Entry entry) {
+        if (reloading > 0) changes.add(new Change(published.version, id, entry));
+        return published;
+    }
+
+    private Snapshot publish(Map<Integer, Entry> byId) {
+        Snapshot next;
+        synchronized (this) {
+            next = new Snapshot(current.version + 1, byId);
+            current = next;
+        }
+        for (Consumer<Snapshot> listener : listeners) {
+            listener.accept(next);
+        }
+        return next;
+    }
+}
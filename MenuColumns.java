@@ -0,0 +1,65 @@
+package application;
+import java.util.Arrays;
+import java.util.Locale;
+
+// MenuColumns: the menu as column arrays for the admin menu table (shown through ColumnarRows),
+// rebuilt from each MenuCache snapshot. Rows are in id order, as in the snapshot; names are the
+// snapshot's own strings, so a row costs an int, a reference and a long.
+public class MenuColumns {
+
+    private int size;
+    private int[] ids = new int[0];
+    private String[] names = new String[0];
+    private long[] priceCents = new long[0];
+
+    // Replace the rows with the snapshot's items. Runs on the FX thread.
+    public void load(MenuCache.Snapshot snapshot) {
+        int n = snapshot.size();
+        int[] nextIds = new int[n];
+        String[] nextNames = new String[n];
+        long[] nextPrices = new long[n];
+        int row = 0;
+        for (MenuCache.Entry entry : snapshot.items()) {
+            nextIds[row] = entry.id;
+            nextNames[row] = entry.name;
+            nextPrices[row] = Main.toCents(entry.price);
+            row++;
+        }
+        ids = nextIds;
+        names = nextNames;
+        priceCents = nextPrices;
+        size = n;
+    }
+
+    public int size() { return size; }
+
+    public int id(int row) { return ids[row]; }
+    public String name(int row) { return names[row]; }
+    public double price(int row) { return priceCents[row] / 100.0; }
+
+    // Row of the item with this id, or -1
+    public int rowOf(int id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -1;
+    }
+
+    // --- Ascending orders and filters for ColumnarRows ---
+
+    public ColumnarRows.RowComparator byId() { return (a, b) -> Integer.compare(ids[a], ids[b]); }
+    public ColumnarRows.RowComparator byName() { return (a, b) -> names[a].compareTo(names[b]); }
+    public ColumnarRows.RowComparator byPrice() { return (a, b) -> Long.compare(priceCents[a], priceCents[b]); }
+
+    // Items whose name contains text (ignoring case) or whose id is text; null when text is blank
+    public ColumnarRows.RowFilter matching(String text) {
+        String needle = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) return null;
+        int id;
+        try {
+            id = Integer.parseInt(needle);
+        } catch (NumberFormatException e) {
+            id = -1;
+        }
+        int wantedId = id;
+        return row -> ids[row] == wantedId || names[row].toLowerCase(Locale.ROOT).contains(needle);
+    }
+}
@@ -0,0 +1,474 @@
+package application;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// MenuFile: streaming reader and writer for menu item files, CSV or JSON (chosen by the .json
+// extension). Rows are parsed one at a time, so any file size needs memory for one row only.
+//
+// CSV (RFC 4180: quoted fields, "" inside quotes, line breaks inside quotes) with a header row
+// naming the columns; name and price are required, id is optional, other columns are ignored:
+//   id,name,price
+//   12,"Paneer Tikka, half",180.00
+// JSON: one array of objects. id may be missing or null; other fields are ignored:
+//   [{"id": 12, "name": "Paneer Tikka, half", "price": 180.00}, ...]
+//
+// Every row is checked as it is read (name 1-100 characters, price positive with at most two
+// decimals, id positive); a bad row fails with an IOException naming its line.
+public final class MenuFile {
+
+    static final int MAX_NAME_LENGTH = 100; // menu.name is VARCHAR2(100)
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99"); // NUMBER(10, 2)
+
+    private MenuFile() {}
+
+    public static final class Row {
+        public final Integer id; // null = match by name
+        public final String name;
+        public final BigDecimal price;
+        public final long line;
+
+        Row(Integer id, String name, BigDecimal price, long line) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.line = line;
+        }
+    }
+
+    public interface RowReader extends Closeable {
+        // Next row, or null at the end of the file
+        Row next() throws IOException;
+
+        // Bytes consumed so far (read ahead by up to one buffer), for progress reporting
+        long bytesRead();
+    }
+
+    public interface RowWriter extends Closeable {
+        void write(int id, String name, BigDecimal price) throws IOException;
+    }
+
+    public static boolean isJson(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+    }
+
+    public static RowReader reader(Path file) throws IOException {
+        CountingInputStream bytes = new CountingInputStream(Files.newInputStream(file));
+        Input in = new Input(new InputStreamReader(bytes, StandardCharsets.UTF_8), bytes, file);
+        return isJson(file) ? new JsonReader(in) : new CsvReader(in);
+    }
+
+    public static RowWriter writer(Path file) throws IOException {
+        BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        return isJson(file) ? new JsonWriter(out) : new CsvWriter(out);
+    }
+
+    // --- Input ---
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    // Characters with one of lookahead, counting lines
+    private static final class Input implements Closeable {
+        private final Reader reader;
+        private final CountingInputStream bytes;
+        private final Path file;
+        private final char[] buffer = new char[1 << 13];
+        private int pos, limit;
+        long line = 1;
+
+        Input(Reader reader, CountingInputStream bytes, Path file) {
+            this.reader = reader;
+            this.bytes = bytes;
+            this.file = file;
+        }
+
+        int peek() throws IOException {
+            if (pos == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[pos];
+        }
+
+        int read() throws IOException {
+            int c = peek();
+            if (c >= 0) {
+                pos++;
+                if (c == '\n') line++;
+            }
+            return c;
+        }
+
+        IOException error(long atLine, String message) {
+            return new IOException(file.getFileName() + " line " + atLine + ": " + message);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static Row row(Input in, long line, Integer id, String name, String priceText) throws IOException {
+        name = name == null ? "" : name.trim();
+        if (name.isEmpty()) throw in.error(line, "name is empty");
+        if (name.length() > MAX_NAME_LENGTH) throw in.error(line, "name is longer than " + MAX_NAME_LENGTH + " characters");
+        if (id != null && id <= 0) throw in.error(line, "id must be positive: " + id);
+        if (priceText == null || priceText.trim().isEmpty()) throw in.error(line, "price is missing");
+        BigDecimal price;
+        try {
+            price = new BigDecimal(priceText.trim());
+        } catch (NumberFormatException e) {
+            throw in.error(line, "price is not a number: " + priceText);
+        }
+        if (price.signum() <= 0 || price.compareTo(MAX_PRICE) > 0) throw in.error(line, "price out of range: " + priceText);
+        if (price.stripTrailingZeros().scale() > 2) throw in.error(line, "price has more than two decimals: " + priceText);
+        return new Row(id, name, price.setScale(2), line);
+    }
+
+    private static Integer parseId(Input in, long line, String text) throws IOException {
+        if (text == null || text.trim().isEmpty() || text.trim().equals("null")) return null;
+        try {
+            return Integer.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            throw in.error(line, "id is not a whole number: " + text);
+        }
+    }
+
+    private static final class CsvReader implements RowReader {
+        private final Input in;
+        private int idCol = -1, nameCol = -1, priceCol = -1;
+        private long recordLine;
+
+        CsvReader(Input in) {
+            this.in = in;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (nameCol < 0) readHeader();
+            List<String> fields = record();
+            if (fields == null) return null;
+            return row(in, recordLine,
+                    idCol < 0 ? null : parseId(in, recordLine, field(fields, idCol)),
+                    field(fields, nameCol), field(fields, priceCol));
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = record();
+            if (header == null) throw in.error(1, "empty file, expected a header row such as id,name,price");
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.putIfAbsent(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("name") || !columns.containsKey("price")) {
+                throw in.error(recordLine, "header must name the columns name and price (and optionally id): " + header);
+            }
+            idCol = columns.getOrDefault("id", -1);
+            nameCol = columns.get("name");
+            priceCol = columns.get("price");
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index) : null;
+        }
+
+        // Fields of the next record, or null at the end; blank lines are skipped
+        private List<String> record() throws IOException {
+            int c;
+            do {
+                c = in.read();
+            } while (c == '\r' || c == '\n');
+            if (c < 0) return null;
+            recordLine = in.line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) throw in.error(recordLine, "quoted field is never closed");
+                    if (c == '"') {
+                        if (in.peek() == '"') {
+                            in.read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c < 0) {
+                    if (c == '\r' && in.peek() == '\n') in.read();
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+
+        @Override public long bytesRead() { return in.bytes.count; }
+        @Override public void close() throws IOException { in.close(); }
+    }
+
+    private static final class JsonReader implements RowReader {
+        private final Input in;
+        private boolean started, done;
+
+        JsonReader(Input in) {
+            this.in = in;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (done) return null;
+            int c = skipSpace();
+            if (!started) {
+                if (c != '[') throw in.error(in.line, "expected an array of menu items");
+                started = true;
+                c = skipSpace();
+                if (c == ']') return end();
+            } else if (c == ']') {
+                return end();
+            } else if (c != ',') {
+                throw in.error(in.line, "expected , or ] after a menu item");
+            } else {
+                c = skipSpace();
+            }
+            if (c != '{') throw in.error(in.line, "expected a menu item object");
+            long line = in.line;
+            String idText = null, name = null, priceText = null;
+            c = skipSpace();
+            if (c != '}') {
+                while (true) {
+                    if (c != '"') throw in.error(in.line, "expected a field name");
+                    String key = string();
+                    if (skipSpace() != ':') throw in.error(in.line, "expected : after \"" + key + "\"");
+                    switch (key) {
+                        case "id": idText = scalar(); break;
+                        case "name": name = nullableString(); break;
+                        case "price": priceText = scalar(); break;
+                        default: skipValue(); break;
+                    }
+                    c = skipSpace();
+                    if (c == '}') break;
+                    if (c != ',') throw in.error(in.line, "expected , or } in a menu item");
+                    c = skipSpace();
+                }
+            }
+            return row(in, line, parseId(in, line, idText), name, priceText);
+        }
+
+        private Row end() throws IOException {
+            done = true;
+            if (skipSpace() >= 0) throw in.error(in.line, "unexpected content after the array");
+            return null;
+        }
+
+        // Next character that is not whitespace, consumed
+        private int skipSpace() throws IOException {
+            int c;
+            do {
+                c = in.read();
+            } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+            return c;
+        }
+
+        // After the opening quote
+        private String string() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                int c = in.read();
+                if (c < 0) throw in.error(in.line, "string is never closed");
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append((char) c);
+                    continue;
+                }
+                int e = in.read();
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append((char) e); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(in.read(), 16);
+                            if (digit < 0) throw in.error(in.line, "bad \\u escape");
+                            code = code * 16 + digit;
+                        }
+                        sb.append((char) code);
+                        break;
+                    default: throw in.error(in.line, "bad escape \\" + (char) e);
+                }
+            }
+        }
+
+        private String nullableString() throws IOException {
+            int c = skipSpace();
+            if (c == '"') return string();
+            String literal = literal(c);
+            if (literal.equals("null")) return null;
+            throw in.error(in.line, "expected a string but found " + literal);
+        }
+
+        // Number, string or null as text (null for null)
+        private String scalar() throws IOException {
+            int c = skipSpace();
+            if (c == '"') return string();
+            String literal = literal(c);
+            return literal.equals("null") ? null : literal;
+        }
+
+        // A bare number or true/false/null starting with c
+        private String literal(int c) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while (c >= 0 && (Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.')) {
+                sb.append((char) c);
+                int next = in.peek();
+                if (!(Character.isLetterOrDigit(next) || next == '-' || next == '+' || next == '.')) break;
+                c = in.read();
+            }
+            if (sb.length() == 0) throw in.error(in.line, "expected a value");
+            return sb.toString();
+        }
+
+        private void skipValue() throws IOException {
+            int c = skipSpace();
+            if (c == '"') {
+                string();
+            } else if (c == '{' || c == '[') {
+                int depth = 1;
+                while (depth > 0) {
+                    c = in.read();
+                    if (c < 0) throw in.error(in.line, "unexpected end of file");
+                    if (c == '"') string();
+                    else if (c == '{' || c == '[') depth++;
+                    else if (c == '}' || c == ']') depth--;
+                }
+            } else {
+                literal(c);
+            }
+        }
+
+        @Override public long bytesRead() { return in.bytes.count; }
+        @Override public void close() throws IOException { in.close(); }
+    }
+
+    // --- Output ---
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+
+        CsvWriter(Writer out) throws IOException {
+            this.out = out;
+            out.write("id,name,price\r\n");
+        }
+
+        @Override
+        public void write(int id, String name, BigDecimal price) throws IOException {
+            out.write(Integer.toString(id));
+            out.write(',');
+            boolean quote = name.indexOf(',') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\n') >= 0
+                    || name.indexOf('\r') >= 0 || !name.equals(name.trim());
+            if (quote) {
+                out.write('"');
+                out.write(name.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(name);
+            }
+            out.write(',');
+            out.write(price.setScale(2).toPlainString());
+            out.write("\r\n");
+        }
+
+        @Override public void close() throws IOException { out.close(); }
+    }
+
+    private static final class JsonWriter implements RowWriter {
+        private final Writer out;
+        private boolean first = true;
+
+        JsonWriter(Writer out) throws IOException {
+            this.out = out;
+            out.write('[');
+        }
+
+        @Override
+        public void write(int id, String name, BigDecimal price) throws IOException {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("{\"id\": ");
+            out.write(Integer.toString(id));
+            out.write(", \"name\": \"");
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.write('\\');
+                    out.write(c);
+                } else if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write(c);
+                }
+            }
+            out.write("\", \"price\": ");
+            out.write(price.setScale(2).toPlainString());
+            out.write('}');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.write(first ? "]\n" : "\n]\n");
+            out.close();
+        }
+    }
+}
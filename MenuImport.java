@@ -0,0 +1,214 @@
+package application;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// MenuImport: loads a whole menu file (CSV or JSON, see MenuFile) into the menu table, and
+// writes the table back out in the same formats.
+//
+// The file is read one row at a time and applied in chunks of menu.importChunk rows: one JDBC
+// batch of MERGEs and one COMMIT per chunk, instead of a statement and a commit per item, and
+// memory holds one chunk (plus the file's explicit ids) whatever the file size.
+//   - rows with an id are upserted by id (name and price replaced)
+//   - rows without one are upserted by name (price replaced); new items take ids from MenuStore,
+//     never one that a row further on in the file gives explicitly
+// The file is read once first, to check every row and collect those explicit ids, so a bad row
+// fails the import before anything is written. Chunks committed before a database error stay
+// committed; every row is an upsert, so the file can simply be imported again. Matching by name
+// needs sql/006_menu_name_index.sql, or every row scans the menu table.
+//
+//   menu.importChunk - rows per batch and transaction
+public class MenuImport {
+
+    static final String MERGE_BY_ID_SQL =
+            "MERGE INTO menu m USING (SELECT CAST(? AS NUMBER) AS id, CAST(? AS VARCHAR2(100)) AS name, " +
+            "CAST(? AS NUMBER(10, 2)) AS price FROM dual) d " +
+            "ON (m.id = d.id) " +
+            "WHEN MATCHED THEN UPDATE SET m.name = d.name, m.price = d.price " +
+            "WHEN NOT MATCHED THEN INSERT (id, name, price) VALUES (d.id, d.name, d.price)";
+    // The id is only used when the name is new
+    static final String MERGE_BY_NAME_SQL =
+            "MERGE INTO menu m USING (SELECT CAST(? AS NUMBER) AS id, CAST(? AS VARCHAR2(100)) AS name, " +
+            "CAST(? AS NUMBER(10, 2)) AS price FROM dual) d " +
+            "ON (m.name = d.name) " +
+            "WHEN MATCHED THEN UPDATE SET m.price = d.price " +
+            "WHEN NOT MATCHED THEN INSERT (id, name, price) VALUES (d.id, d.name, d.price)";
+    static final String EXPORT_SQL = "SELECT id, name, price FROM menu ORDER BY id";
+    private static final int EXPORT_FETCH_SIZE = 1_000;
+
+    private static final Metrics.Histogram CHUNK_TIME = Metrics.global().timer("db.menu.importChunk");
+    private static final Metrics.Counter ROWS = Metrics.global().counter("menu.import.rows");
+    private static final Metrics.Counter RETRIES = Metrics.global().counter("menu.import.retries");
+
+    // Called on the importing thread after each committed chunk
+    @FunctionalInterface
+    public interface Progress {
+        void update(long rowsCommitted, double fractionRead);
+    }
+
+    public static final class Result {
+        public final long rows;
+        public final int chunks;
+        public final long elapsedNanos;
+
+        Result(long rows, int chunks, long elapsedNanos) {
+            this.rows = rows;
+            this.chunks = chunks;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private final MenuStore store;
+    private final int chunkSize;
+
+    public MenuImport(MenuStore store, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("menu.importChunk must be at least 1: " + chunkSize);
+        this.store = store;
+        this.chunkSize = chunkSize;
+    }
+
+    static MenuImport fromConfig(AppConfig config, MenuStore store) {
+        return new MenuImport(store, config.getInt("menu.importChunk", 500));
+    }
+
+    // Runs on a data-access thread and commits as it goes. progress may be null.
+    public Result importFile(Connection conn, Path file, Progress progress) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long size = Math.max(1, Files.size(file));
+        long rows = 0;
+        int chunks = 0;
+        int[] explicitIds = explicitIds(file); // a bad row throws here, before any chunk is written
+        List<MenuFile.Row> chunk = new ArrayList<>(chunkSize);
+        try (MenuFile.RowReader reader = MenuFile.reader(file)) {
+            while (true) {
+                MenuFile.Row row = reader.next();
+                if (row != null) chunk.add(row);
+                if (chunk.size() == chunkSize || (row == null && !chunk.isEmpty())) {
+                    applyChunk(conn, chunk, explicitIds);
+                    rows += chunk.size();
+                    chunks++;
+                    chunk.clear();
+                    if (progress != null) progress.update(rows, Math.min(1.0, reader.bytesRead() / (double) size));
+                }
+                if (row == null) break;
+            }
+        }
+        return new Result(rows, chunks, System.nanoTime() - start);
+    }
+
+    // Distinct ids given in the file, sorted
+    static int[] explicitIds(Path file) throws IOException {
+        int[] ids = new int[64];
+        int n = 0;
+        try (MenuFile.RowReader reader = MenuFile.reader(file)) {
+            for (MenuFile.Row row; (row = reader.next()) != null; ) {
+                if (row.id == null) continue;
+                if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+                ids[n++] = row.id;
+            }
+        }
+        Arrays.sort(ids, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) ids[distinct++] = ids[i];
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    private void applyChunk(Connection conn, List<MenuFile.Row> chunk, int[] explicitIds) throws SQLException {
+        long started = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeChunk(conn, chunk, explicitIds);
+                conn.commit();
+                break;
+            } catch (SQLException e) {
+                conn.rollback();
+                // Another admin took one of our new ids, or inserted one of our ids first: with
+                // that row now committed the retry picks fresh ids or takes the UPDATE branch
+                if (attempt >= MenuStore.MAX_ID_ATTEMPTS || !isDuplicateKey(e)) throw e;
+                RETRIES.increment();
+            }
+        }
+        CHUNK_TIME.recordSince(started);
+        ROWS.add(chunk.size());
+    }
+
+    private void writeChunk(Connection conn, List<MenuFile.Row> chunk, int[] explicitIds) throws SQLException {
+        int byName = 0;
+        try (PreparedStatement mergeById = conn.prepareStatement(MERGE_BY_ID_SQL)) {
+            int byId = 0;
+            for (MenuFile.Row row : chunk) {
+                if (row.id == null) {
+                    byName++;
+                    continue;
+                }
+                mergeById.setInt(1, row.id);
+                mergeById.setString(2, row.name);
+                mergeById.setBigDecimal(3, row.price);
+                mergeById.addBatch();
+                byId++;
+            }
+            if (byId > 0) mergeById.executeBatch();
+        }
+        if (byName == 0) return;
+        int[] newIds = store.newIds(conn, byName, explicitIds);
+        try (PreparedStatement mergeByName = conn.prepareStatement(MERGE_BY_NAME_SQL)) {
+            int next = 0;
+            for (MenuFile.Row row : chunk) {
+                if (row.id != null) continue;
+                mergeByName.setInt(1, newIds[next++]);
+                mergeByName.setString(2, row.name);
+                mergeByName.setBigDecimal(3, row.price);
+                mergeByName.addBatch();
+            }
+            mergeByName.executeBatch();
+        }
+    }
+
+    // Drivers report a failed batch as BatchUpdateException with the real cause chained
+    static boolean isDuplicateKey(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            for (Throwable t = next; t != null; t = t.getCause()) {
+                if (t instanceof SQLIntegrityConstraintViolationException) return true;
+                String state = t instanceof SQLException ? ((SQLException) t).getSQLState() : null;
+                if (state != null && state.startsWith("23")) return true; // integrity constraint violation
+            }
+        }
+        return false;
+    }
+
+    // Streams the menu, ordered by id, into file (format by extension). Written to a temporary
+    // file next to it first, so a failed export never leaves a half-written menu behind.
+    // Returns the number of items written.
+    public long exportFile(Connection conn, Path file) throws IOException, SQLException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), MenuFile.isJson(file) ? ".json" : ".csv");
+        long rows = 0;
+        try {
+            try (MenuFile.RowWriter out = MenuFile.writer(tmp);
+                 PreparedStatement ps = conn.prepareStatement(EXPORT_SQL)) {
+                ps.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.write(rs.getInt(1), rs.getString(2), rs.getBigDecimal(3));
+                        rows++;
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            return rows;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
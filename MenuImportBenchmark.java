@@ -0,0 +1,195 @@
+package application;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+// MenuImportBenchmark: bulk menu import and export (MenuImport) of a generated menu on an
+// embedded H2 database (Oracle mode), against adding the same items one at a time the way the
+// admin screen does (a statement and a commit each).
+//
+//   java -cp <classes>:h2.jar application.MenuImportBenchmark [items] [itemsOneByOne]
+//
+// A different database can be used with -Dbench.url=... -Dbench.user=... -Dbench.password=...
+// (the schema from sql/001, sql/005 and sql/006 must then already exist; the menu table is emptied).
+public class MenuImportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int oneByOne = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        Path dir = Files.createTempDirectory("menuimport");
+        String url = System.getProperty("bench.url");
+        boolean embedded = url == null;
+        if (embedded) {
+            url = "jdbc:h2:" + dir.resolve("bench").toAbsolutePath() + ";MODE=Oracle";
+        }
+        Path csvByName = dir.resolve("menu-names.csv");
+        Path jsonByName = dir.resolve("menu-names.json");
+        Path csvById = dir.resolve("menu-ids.csv");
+        Path csvMixed = dir.resolve("menu-mixed.csv");
+        generate(csvByName, items, false);
+        generate(jsonByName, items, false);
+        generate(csvById, items, true);
+        generateMixed(csvMixed, items);
+        System.out.printf("%,d items (%,d KB CSV), %s%n", items, Files.size(csvByName) / 1024, url);
+
+        try (ConnectionPool pool = new ConnectionPool(config(url))) {
+            try (Connection conn = pool.getConnection()) {
+                if (embedded) {
+                    SqlScript.run(conn, Paths.get("sql", "001_schema.sql"));
+                    SqlScript.run(conn, Paths.get("sql", "005_menu_id_sequence.sql"));
+                    SqlScript.run(conn, Paths.get("sql", "006_menu_name_index.sql"));
+                }
+                parseOnly(csvByName);
+                parseOnly(jsonByName);
+
+                MenuStore maxPlusOne = new MenuStore(null);
+                clear(conn);
+                long start = System.nanoTime();
+                try (MenuFile.RowReader reader = MenuFile.reader(csvByName)) {
+                    MenuFile.Row row;
+                    for (int i = 0; i < oneByOne && (row = reader.next()) != null; i++) {
+                        maxPlusOne.insert(conn, row.name, row.price.doubleValue());
+                        conn.commit();
+                    }
+                }
+                report(String.format("one by one, first %,d (commit each)", oneByOne), oneByOne, System.nanoTime() - start, conn);
+
+                for (int chunk : new int[]{100, 500, 2_000}) {
+                    MenuImport menuImport = new MenuImport(maxPlusOne, chunk);
+                    clear(conn);
+                    timeImport(menuImport, conn, csvByName, "CSV by name, new items, chunk " + chunk);
+                    timeImport(menuImport, conn, csvByName, "CSV by name, all exist, chunk " + chunk);
+                }
+                MenuImport menuImport = new MenuImport(new MenuStore(new SequenceIdAllocator("menu_id_seq", 20)), 500);
+                clear(conn);
+                timeImport(menuImport, conn, jsonByName, "JSON by name, sequence ids, chunk 500");
+                clear(conn);
+                timeImport(menuImport, conn, csvById, "CSV by id, new items, chunk 500");
+                timeImport(menuImport, conn, csvById, "CSV by id, all exist, chunk 500");
+                // The menu holds ids 1..items; every row of the mixed file is a new item
+                timeImport(new MenuImport(maxPlusOne, 500), conn, csvMixed, "CSV ids and names mixed, chunk 500");
+                expectRows(conn, 2L * items);
+                clear(conn);
+                timeImport(menuImport, conn, csvById, "CSV by id, new items, chunk 500");
+                timeImport(menuImport, conn, csvMixed, "CSV mixed, sequence ids, chunk 500");
+                expectRows(conn, 2L * items);
+
+                for (Path out : new Path[]{dir.resolve("export.csv"), dir.resolve("export.json")}) {
+                    start = System.nanoTime();
+                    long rows = menuImport.exportFile(conn, out);
+                    report("export " + out.getFileName(), rows, System.nanoTime() - start, null);
+                }
+            }
+        }
+    }
+
+    private static AppConfig config(String url) {
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.user", System.getProperty("bench.user", "sa"));
+        props.setProperty("db.password", System.getProperty("bench.password", ""));
+        props.setProperty("pool.minSize", "1");
+        props.setProperty("pool.maxSize", "2");
+        return AppConfig.of(props);
+    }
+
+    // With ids the file is written by MenuFile; without, rows are matched by name and carry an
+    // extra column (CSV) or nested field (JSON) that the reader has to skip
+    private static void generate(Path file, int items, boolean withIds) throws IOException {
+        if (withIds) {
+            try (MenuFile.RowWriter out = MenuFile.writer(file)) {
+                for (int i = 1; i <= items; i++) {
+                    out.write(i, name(i), price(i));
+                }
+            }
+            return;
+        }
+        boolean json = MenuFile.isJson(file);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(json ? "[" : "name,price,note\r\n");
+            for (int i = 1; i <= items; i++) {
+                if (json) {
+                    out.write((i > 1 ? ",\n" : "\n") + "{\"name\": \"" + name(i).replace("\"", "\\\"") + "\", \"price\": "
+                            + price(i) + ", \"tags\": [\"veg\", {\"spicy\": true}]}");
+                } else {
+                    out.write("\"" + name(i).replace("\"", "\"\"") + "\"," + price(i) + ",\r\n");
+                }
+            }
+            out.write(json ? "\n]\n" : "");
+        }
+    }
+
+    // Every other row has a new id above the menu's, the rest are new names without an id: the
+    // ids MenuImport picks for the names must not be ones that later chunks give explicitly
+    private static void generateMixed(Path file, int items) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("id,name,price\r\n");
+            for (int i = 1; i <= items; i++) {
+                String name = "\"" + name(items + i).replace("\"", "\"\"") + "\"";
+                out.write((i % 2 == 1 ? String.valueOf(items + i) : "") + "," + name + "," + price(i) + "\r\n");
+            }
+        }
+    }
+
+    private static String name(int i) {
+        return i % 10 == 0 ? "Thali, special " + i : "Item \"" + i + "\"";
+    }
+
+    private static BigDecimal price(int i) {
+        return BigDecimal.valueOf(5_000 + (i * 37L) % 50_000, 2);
+    }
+
+    private static void parseOnly(Path file) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (MenuFile.RowReader reader = MenuFile.reader(file)) {
+            while (reader.next() != null) rows++;
+        }
+        report("parse only " + file.getFileName(), rows, System.nanoTime() - start, null);
+    }
+
+    private static void timeImport(MenuImport menuImport, Connection conn, Path file, String label) throws Exception {
+        MenuImport.Result result = menuImport.importFile(conn, file, null);
+        report(label, result.rows, result.elapsedNanos, conn);
+    }
+
+    private static void clear(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM menu");
+        }
+        conn.commit();
+    }
+
+    private static void expectRows(Connection conn, long expected) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM menu")) {
+            rs.next();
+            if (rs.getLong(1) != expected) {
+                throw new IllegalStateException(String.format("menu has %,d rows, expected %,d", rs.getLong(1), expected));
+            }
+        }
+    }
+
+    // conn != null: also check the table has one row per distinct name
+    private static void report(String label, long rows, long nanos, Connection conn) throws SQLException {
+        String check = "";
+        if (conn != null) {
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT COUNT(*), COUNT(DISTINCT id), COUNT(DISTINCT name) FROM menu")) {
+                rs.next();
+                check = rs.getLong(1) == rs.getLong(2) && rs.getLong(1) == rs.getLong(3)
+                        ? String.format("%,d rows ok", rs.getLong(1)) : "DUPLICATES";
+            }
+        }
+        System.out.printf("  %-42s %,9.0f items/sec  %8.1f ms  %s%n", label, rows / (nanos / 1e9), nanos / 1e6, check);
+    }
+}
@@ -0,0 +1,111 @@
+package application;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Arrays;
+
+// MenuStore: writes to the menu table for the admin screen and tools. Runs on a data-access
+// thread inside the caller's transaction; the caller commits and then updates MenuCache.
+//
+// New ids come from pre-fetched sequence blocks when menu.idSequence is set (run
+// sql/005_menu_id_sequence.sql): the id is handed out in-process, so an insert is a single
+// INSERT and two admins can never pick the same id. Without a sequence the id is read as
+// MAX(id) + 1 first; an admin who loses the race to that id gets a primary-key violation and
+// tries again with the next one (up to MAX_ID_ATTEMPTS times).
+public class MenuStore {
+
+    static final String INSERT_SQL = "INSERT INTO menu (id, name, price) VALUES (?, ?, ?)";
+    static final String NEXT_ID_SQL = "SELECT NVL(MAX(id), 0) + 1 FROM menu"; // NVL for an empty table
+    static final String UPDATE_SQL = "UPDATE menu SET name = ?, price = ? WHERE id = ?";
+    static final String DELETE_SQL = "DELETE FROM menu WHERE id = ?";
+    static final int MAX_ID_ATTEMPTS = 5;
+
+    private static final Metrics.Counter ID_COLLISIONS = Metrics.global().counter("menu.idCollisions");
+
+    private final SequenceIdAllocator ids; // null = MAX(id) + 1
+
+    public MenuStore(SequenceIdAllocator ids) {
+        this.ids = ids;
+    }
+
+    static MenuStore fromConfig(AppConfig config) {
+        return new MenuStore(SequenceIdAllocator.fromConfig(config, "menu", 20));
+    }
+
+    // Returns the new item's id
+    public int insert(Connection conn, String name, double price) throws SQLException {
+        if (ids != null) {
+            int id = ids.nextId(conn);
+            insert(conn, id, name, price);
+            return id;
+        }
+        for (int attempt = 1; ; attempt++) {
+            int id;
+            try (PreparedStatement ps = conn.prepareStatement(NEXT_ID_SQL); ResultSet rs = ps.executeQuery()) {
+                id = rs.next() ? rs.getInt(1) : 1;
+            }
+            try {
+                insert(conn, id, name, price);
+                return id;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                if (attempt >= MAX_ID_ATTEMPTS) throw e;
+                ID_COLLISIONS.increment(); // another admin committed this id first
+            }
+        }
+    }
+
+    // Ids for n items inserted together (MenuImport), none of them in reserved (sorted ids the
+    // caller will give explicitly). From the sequence when configured, skipping reserved ids;
+    // otherwise the n after MAX(id) and every reserved id, which another admin can take first:
+    // the batch then fails with a primary-key violation and should be retried with fresh ids.
+    int[] newIds(Connection conn, int n, int[] reserved) throws SQLException {
+        int[] result = new int[n];
+        if (ids != null) {
+            for (int i = 0; i < n; i++) {
+                int id;
+                do {
+                    id = ids.nextId(conn);
+                } while (Arrays.binarySearch(reserved, id) >= 0);
+                result[i] = id;
+            }
+            return result;
+        }
+        int first;
+        try (PreparedStatement ps = conn.prepareStatement(NEXT_ID_SQL); ResultSet rs = ps.executeQuery()) {
+            first = rs.next() ? rs.getInt(1) : 1;
+        }
+        if (reserved.length > 0) first = Math.max(first, reserved[reserved.length - 1] + 1);
+        for (int i = 0; i < n; i++) {
+            result[i] = first + i;
+        }
+        return result;
+    }
+
+    private static void insert(Connection conn, int id, String name, double price) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            ps.setInt(1, id);
+            ps.setString(2, name);
+            ps.setDouble(3, price);
+            ps.executeUpdate();
+        }
+    }
+
+    // Rows changed: 0 when no item has this id
+    public int update(Connection conn, int id, String name, double price) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+            ps.setString(1, name);
+            ps.setDouble(2, price);
+            ps.setInt(3, id);
+            return ps.executeUpdate();
+        }
+    }
+
+    public int delete(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+            ps.setInt(1, id);
+            return ps.executeUpdate();
+        }
+    }
+}
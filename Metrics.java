@@ -0,0 +1,379 @@
+package application;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Metrics: process-wide registry of latency timers, size distributions and counters, cheap enough
+// to leave on under load. Recording a value is one increment in a log-linear histogram
+// (HdrHistogram-style: 32 sub-buckets per power of two, so percentiles are within ~3%), with no
+// locks and no allocation.
+//
+// Names are dotted: db.<operation> is time on a data-access thread including the pool borrow,
+// ui.<action> is click to result on screen, db.commit times every COMMIT, and distributions
+// such as bill.groupCommit.bills record batch sizes. start() publishes every metric as an
+// MXBean (application.metrics:type=Timer|Distribution|Counter,name=...) and appends interval
+// snapshots to a CSV file; the admin Diagnostics tab shows snapshot().
+//
+//   metrics.jmx             - register MXBeans with the platform MBean server
+//   metrics.csvFile         - file the interval rows are appended to; empty = no CSV
+//   metrics.dumpIntervalSec - seconds per interval; 0 = no periodic dump
+//   metrics.log             - also print each interval's active metrics to stdout
+public final class Metrics implements AutoCloseable {
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    public static Metrics global() { return GLOBAL; }
+
+    // --- Metric types ---
+
+    // Read through JMX; times are in milliseconds
+    public interface HistogramMXBean {
+        String getUnit();
+        long getCount();
+        double getMean();
+        double getP50();
+        double getP90();
+        double getP99();
+        double getP999();
+        double getMax();
+    }
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    public static final class Histogram implements HistogramMXBean {
+        static final int SUB_BITS = 5;
+        static final int SUB_COUNT = 1 << SUB_BITS;
+        static final int MAX_BITS = 42; // values up to 2^42 (73 minutes in ns); larger ones are clamped
+        static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) * SUB_COUNT;
+
+        private final String name;
+        private final String unit;
+        private final double scale; // recorded value -> unit (ns -> ms for timers)
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram(String name, String unit, double scale) {
+            this.name = name;
+            this.unit = unit;
+            this.scale = scale;
+        }
+
+        public void record(long value) {
+            if (value < 0) value = 0;
+            counts.getAndIncrement(bucket(value));
+            total.add(value);
+            long prev;
+            while (value > (prev = max.get()) && !max.compareAndSet(prev, value)) {
+                // retry until we win or someone else recorded a larger value
+            }
+        }
+
+        // For timers: records the nanoseconds since a System.nanoTime() taken at the start
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public Snapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                count += copy[i];
+            }
+            return new Snapshot(name, unit, scale, count, total.sum(), max.get(), copy);
+        }
+
+        // Exact below 2 * SUB_COUNT; above that, SUB_COUNT buckets per power of two
+        static int bucket(long value) {
+            if (value < 2 * SUB_COUNT) return (int) value;
+            if (value >= 1L << MAX_BITS) value = (1L << MAX_BITS) - 1;
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+            return (shift << SUB_BITS) + (int) (value >>> shift);
+        }
+
+        static long lowestValue(int bucket) {
+            if (bucket < 2 * SUB_COUNT) return bucket;
+            int shift = (bucket >>> SUB_BITS) - 1;
+            return (long) ((bucket & (SUB_COUNT - 1)) + SUB_COUNT) << shift;
+        }
+
+        @Override public String getUnit() { return unit; }
+        @Override public long getCount() { return snapshot().count; }
+        @Override public double getMean() { return snapshot().mean(); }
+        @Override public double getP50() { return snapshot().percentile(0.50); }
+        @Override public double getP90() { return snapshot().percentile(0.90); }
+        @Override public double getP99() { return snapshot().percentile(0.99); }
+        @Override public double getP999() { return snapshot().percentile(0.999); }
+        @Override public double getMax() { return snapshot().max(); }
+    }
+
+    public static final class Counter implements CounterMXBean {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() { count.increment(); }
+        public void add(long n) { count.add(n); }
+
+        @Override public long getCount() { return count.sum(); }
+
+        Snapshot snapshot() {
+            return new Snapshot(name, null, 1, count.sum(), 0, 0, null);
+        }
+    }
+
+    // Point-in-time copy of one metric. Values are in the metric's unit; counters have only a count.
+    public static final class Snapshot {
+        public final String name;
+        public final String unit; // null for counters
+        public final long count;
+        private final double scale;
+        private final long total;
+        private final long max;
+        private final long[] counts;
+
+        Snapshot(String name, String unit, double scale, long count, long total, long max, long[] counts) {
+            this.name = name;
+            this.unit = unit;
+            this.scale = scale;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+            this.counts = counts;
+        }
+
+        public boolean isCounter() { return counts == null; }
+
+        public double mean() {
+            return count == 0 ? 0.0 : total * scale / count;
+        }
+
+        public double max() {
+            return max * scale;
+        }
+
+        // Upper end of the bucket holding the q-th value (never above the recorded max)
+        public double percentile(double q) {
+            if (count == 0 || counts == null) return 0.0;
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(max, Histogram.lowestValue(i + 1) - 1) * scale;
+                }
+            }
+            return max();
+        }
+
+        // What happened between earlier and this snapshot. The interval max is only known to
+        // bucket precision.
+        Snapshot since(Snapshot earlier) {
+            if (earlier == null) return this;
+            if (counts == null) {
+                return new Snapshot(name, null, scale, count - earlier.count, 0, 0, null);
+            }
+            long[] delta = new long[counts.length];
+            int top = -1;
+            for (int i = 0; i < counts.length; i++) {
+                delta[i] = counts[i] - earlier.counts[i];
+                if (delta[i] > 0) top = i;
+            }
+            long intervalMax = top < 0 ? 0 : Math.min(max, Histogram.lowestValue(top + 1) - 1);
+            return new Snapshot(name, unit, scale, count - earlier.count, total - earlier.total, intervalMax, delta);
+        }
+    }
+
+    // --- Registry ---
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private volatile MBeanServer mbeans; // set by start() when metrics.jmx is on
+    private final List<ObjectName> registered = new ArrayList<>();
+    private ScheduledExecutorService dumper;
+    private Path csvFile;
+    private boolean logIntervals;
+    private Map<String, Snapshot> lastDump = new HashMap<>();
+
+    // Durations in nanoseconds, shown in milliseconds
+    public Histogram timer(String name) {
+        return histogram(name, "ms", 1e-6);
+    }
+
+    // Sizes (rows per batch, bills per commit, ...) in the given unit
+    public Histogram distribution(String name, String unit) {
+        return histogram(name, unit, 1);
+    }
+
+    private Histogram histogram(String name, String unit, double scale) {
+        Histogram h = histograms.get(name); // no locking once it exists
+        if (h == null) {
+            h = histograms.computeIfAbsent(name, n -> {
+                Histogram created = new Histogram(n, unit, scale);
+                register(scale == 1 ? "Distribution" : "Timer", n, created);
+                return created;
+            });
+        }
+        return h;
+    }
+
+    public Counter counter(String name) {
+        Counter c = counters.get(name);
+        if (c == null) {
+            c = counters.computeIfAbsent(name, n -> {
+                Counter created = new Counter(n);
+                register("Counter", n, created);
+                return created;
+            });
+        }
+        return c;
+    }
+
+    // Every metric, sorted by name
+    public List<Snapshot> snapshot() {
+        List<Snapshot> all = new ArrayList<>(histograms.size() + counters.size());
+        for (Histogram h : histograms.values()) all.add(h.snapshot());
+        for (Counter c : counters.values()) all.add(c.snapshot());
+        all.sort(Comparator.comparing(s -> s.name));
+        return all;
+    }
+
+    // --- Publishing ---
+
+    public synchronized void start(AppConfig config) {
+        if (config.getBoolean("metrics.jmx", true) && mbeans == null) {
+            mbeans = ManagementFactory.getPlatformMBeanServer();
+            histograms.forEach((name, h) -> register(h.scale == 1 ? "Distribution" : "Timer", name, h));
+            counters.forEach((name, c) -> register("Counter", name, c));
+        }
+        long intervalSec = config.getLong("metrics.dumpIntervalSec", 60);
+        String csv = config.getString("metrics.csvFile", null);
+        csvFile = csv != null ? Paths.get(csv) : null;
+        logIntervals = config.getBoolean("metrics.log", false);
+        if (intervalSec > 0 && (csvFile != null || logIntervals) && dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(this::dump, intervalSec, intervalSec, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void register(String type, String name, Object bean) {
+        MBeanServer server = mbeans;
+        if (server == null) return;
+        try {
+            ObjectName objectName = new ObjectName("application.metrics:type=" + type + ",name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+                registered.add(objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Could not publish metric " + name + " over JMX: " + e.getMessage());
+        }
+    }
+
+    // Appends the metrics that changed since the last dump. Runs on the dump thread, and once
+    // more from close().
+    synchronized void dump() {
+        String time = LocalDateTime.now().withNano(0).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        Map<String, Snapshot> now = new HashMap<>();
+        List<String> rows = new ArrayList<>();
+        StringBuilder log = new StringBuilder();
+        for (Snapshot s : snapshot()) {
+            now.put(s.name, s);
+            Snapshot interval = s.since(lastDump.get(s.name));
+            if (interval.count == 0) continue;
+            if (interval.isCounter()) {
+                rows.add(String.join(",", time, interval.name, "", String.valueOf(interval.count), "", "", "", "", "", ""));
+                log.append(String.format(Locale.ROOT, "%n  %-32s %,d", interval.name, interval.count));
+            } else {
+                rows.add(String.join(",", time, interval.name, interval.unit, String.valueOf(interval.count),
+                        num(interval.mean()), num(interval.percentile(0.50)), num(interval.percentile(0.90)),
+                        num(interval.percentile(0.99)), num(interval.percentile(0.999)), num(interval.max())));
+                log.append(String.format(Locale.ROOT, "%n  %-32s n=%,d mean=%.3f p50=%.3f p99=%.3f max=%.3f %s",
+                        interval.name, interval.count, interval.mean(), interval.percentile(0.50),
+                        interval.percentile(0.99), interval.max(), interval.unit));
+            }
+        }
+        lastDump = now;
+        if (rows.isEmpty()) return;
+        if (logIntervals) {
+            System.out.println("Metrics since last dump:" + log);
+        }
+        if (csvFile != null) {
+            try {
+                boolean fresh = !Files.exists(csvFile) || Files.size(csvFile) == 0;
+                try (BufferedWriter out = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    if (fresh) {
+                        out.write("time,name,unit,count,mean,p50,p90,p99,p999,max");
+                        out.newLine();
+                    }
+                    for (String row : rows) {
+                        out.write(row);
+                        out.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not write metrics to " + csvFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String num(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    // Writes the last interval and takes the MXBeans down. Recording keeps working afterwards.
+    @Override
+    public synchronized void close() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+            dump();
+        }
+        MBeanServer server = mbeans;
+        mbeans = null;
+        if (server != null) {
+            for (ObjectName name : registered) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException e) {
+                    // already gone
+                }
+            }
+            registered.clear();
+        }
+    }
+}
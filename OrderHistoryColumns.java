@@ -0,0 +1,180 @@
+package application;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// OrderHistoryColumns: order history lines kept column by column in primitive arrays, for the
+// admin order history table (shown through ColumnarRows). A line costs about 50 bytes instead
+// of an object with seven JavaFX properties and a time string (see TableMemoryBenchmark).
+// Prices are exact cents, bill times epoch milliseconds, and item names are dictionary-coded:
+// the menu has a few hundred names, history millions of lines.
+//
+// Filled on a data-access thread (one page per OrderHistoryPager fetch), then appended to the
+// table's store on the FX thread; an instance is never shared between threads while it changes.
+public class OrderHistoryColumns {
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private int size;
+    private int[] orderIds;
+    private int[] billIds;
+    private int[] nameCodes;
+    private long[] priceCents;
+    private int[] quantities;
+    private long[] subtotalCents;
+    private long[] billTimes;
+
+    private final List<String> names = new ArrayList<>();            // code -> item name
+    private final Map<String, Integer> codes = new HashMap<>();       // item name -> code
+    private int[] nameRanks = new int[0];                             // code -> position in name order
+
+    public OrderHistoryColumns() {
+        this(16);
+    }
+
+    public OrderHistoryColumns(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        orderIds = new int[capacity];
+        billIds = new int[capacity];
+        nameCodes = new int[capacity];
+        priceCents = new long[capacity];
+        quantities = new int[capacity];
+        subtotalCents = new long[capacity];
+        billTimes = new long[capacity];
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= orderIds.length) return;
+        int capacity = Math.max(needed, orderIds.length + (orderIds.length >> 1));
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        billIds = Arrays.copyOf(billIds, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        subtotalCents = Arrays.copyOf(subtotalCents, capacity);
+        billTimes = Arrays.copyOf(billTimes, capacity);
+    }
+
+    public void add(int orderId, int billId, String itemName, long itemPriceCents, int quantity, long subtotal, Timestamp billTime) {
+        ensureCapacity(size + 1);
+        orderIds[size] = orderId;
+        billIds[size] = billId;
+        nameCodes[size] = code(itemName);
+        priceCents[size] = itemPriceCents;
+        quantities[size] = quantity;
+        subtotalCents[size] = subtotal;
+        billTimes[size] = billTime != null ? billTime.getTime() : NO_TIME;
+        size++;
+    }
+
+    // Append every line of other (a page just fetched)
+    public void addAll(OrderHistoryColumns other) {
+        int n = other.size;
+        ensureCapacity(size + n);
+        System.arraycopy(other.orderIds, 0, orderIds, size, n);
+        System.arraycopy(other.billIds, 0, billIds, size, n);
+        System.arraycopy(other.priceCents, 0, priceCents, size, n);
+        System.arraycopy(other.quantities, 0, quantities, size, n);
+        System.arraycopy(other.subtotalCents, 0, subtotalCents, size, n);
+        System.arraycopy(other.billTimes, 0, billTimes, size, n);
+        int[] recode = new int[other.names.size()];
+        for (int c = 0; c < recode.length; c++) {
+            recode[c] = code(other.names.get(c));
+        }
+        for (int i = 0; i < n; i++) {
+            nameCodes[size + i] = recode[other.nameCodes[i]];
+        }
+        size += n;
+    }
+
+    public void clear() {
+        size = 0;
+        names.clear();
+        codes.clear();
+        nameRanks = new int[0];
+        allocate(16); // let a long history be collected
+    }
+
+    private int code(String name) {
+        Integer code = codes.get(name);
+        if (code == null) {
+            code = names.size();
+            names.add(name);
+            codes.put(name, code);
+        }
+        return code;
+    }
+
+    public int size() { return size; }
+
+    public int orderId(int row) { return orderIds[row]; }
+    public int billId(int row) { return billIds[row]; }
+    public String itemName(int row) { return names.get(nameCodes[row]); }
+    public double itemPrice(int row) { return priceCents[row] / 100.0; }
+    public int quantity(int row) { return quantities[row]; }
+    public double subtotal(int row) { return subtotalCents[row] / 100.0; }
+
+    // As Timestamp.toString(), made only when the cell is shown
+    public String billTime(int row) {
+        return billTimes[row] == NO_TIME ? "N/A" : new Timestamp(billTimes[row]).toString();
+    }
+
+    // --- Ascending orders and filters for ColumnarRows ---
+
+    public ColumnarRows.RowComparator byOrderId() { return (a, b) -> Integer.compare(orderIds[a], orderIds[b]); }
+    public ColumnarRows.RowComparator byBillId() { return (a, b) -> Integer.compare(billIds[a], billIds[b]); }
+    public ColumnarRows.RowComparator byItemPrice() { return (a, b) -> Long.compare(priceCents[a], priceCents[b]); }
+    public ColumnarRows.RowComparator byQuantity() { return (a, b) -> Integer.compare(quantities[a], quantities[b]); }
+    public ColumnarRows.RowComparator bySubtotal() { return (a, b) -> Long.compare(subtotalCents[a], subtotalCents[b]); }
+    public ColumnarRows.RowComparator byBillTime() { return (a, b) -> Long.compare(billTimes[a], billTimes[b]); }
+
+    // Names are ranked once per sort instead of compared as strings on every comparison
+    public ColumnarRows.RowComparator byItemName() {
+        return (a, b) -> {
+            int[] ranks = nameRanks();
+            return Integer.compare(ranks[nameCodes[a]], ranks[nameCodes[b]]);
+        };
+    }
+
+    private int[] nameRanks() {
+        if (nameRanks.length != names.size()) {
+            Integer[] byName = new Integer[names.size()];
+            for (int c = 0; c < byName.length; c++) byName[c] = c;
+            Arrays.sort(byName, (x, y) -> names.get(x).compareTo(names.get(y)));
+            int[] ranks = new int[byName.length];
+            for (int r = 0; r < byName.length; r++) ranks[byName[r]] = r;
+            nameRanks = ranks;
+        }
+        return nameRanks;
+    }
+
+    // Lines whose item name contains text (ignoring case) or whose bill id is text; null when
+    // text is blank. Each distinct name is tested once, not once per line.
+    public ColumnarRows.RowFilter matching(String text) {
+        String needle = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) return null;
+        int billId;
+        try {
+            billId = Integer.parseInt(needle);
+        } catch (NumberFormatException e) {
+            billId = -1;
+        }
+        int wantedBill = billId;
+        List<Boolean> nameMatches = new ArrayList<>(); // by code, grows as pages add names
+        return row -> {
+            if (billIds[row] == wantedBill) return true;
+            int code = nameCodes[row];
+            while (nameMatches.size() <= code) {
+                nameMatches.add(names.get(nameMatches.size()).toLowerCase(Locale.ROOT).contains(needle));
+            }
+            return nameMatches.get(code);
+        };
+    }
+}
@@ -0,0 +1,322 @@
+package application;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// OrderHistoryPager: reads the orders/bills join one page at a time using keyset pagination.
+// Each page seeks past the last (bill_time, bill_id, order_id) seen instead of using OFFSET, so
+// page N costs the same as page 1 no matter how many bills have been written.
+//
+// A Filter narrows the history on the server: bill id, item name prefix, bill time range and
+// bill total range become parameterized WHERE conditions (one statement shape per combination,
+// so the statement cache and the database's plan cache stay small). A page is read bills
+// first: the newest pageSize + 2 matching bills come off the bills(bill_time DESC, bill_id DESC)
+// index from sql/007 in order, and their lines through orders(bill_id, item_name). Every bill
+// has at least one line, so that is enough bills for a full page plus the extra row.
+//
+// An item prefix or a bill total range can match few of the bills that index walks through,
+// so such a search first looks only at the newest history.searchWindowBills bills and checks
+// the prefix or range on those; a common item or a wide range fills the page there. Otherwise it starts from orders(item_name) or from
+// bills(total_amount, bill_time, bill_id) and sorts what matches, which costs in proportion to
+// how much does but no longer depends on where in the history it is. A fetch can be cancelled
+// from another thread (Cancellation).
+//
+// Settings (see restaurant.properties):
+//   history.pageSize          - rows per page
+//   history.fetchSize         - JDBC fetch size (rows per network round trip)
+//   history.maxRows           - most rows the admin table will hold before it stops loading
+//   history.queryTimeoutSec   - a page query running longer than this is stopped (0 = no limit)
+//   history.searchWindowBills - newest bills an item or total search looks through first (0 = skip)
+public class OrderHistoryPager {
+
+    private static final String COLUMNS =
+            "SELECT o.order_id, o.bill_id, o.item_name, o.item_price, o.quantity, o.subtotal, b.bill_time ";
+    private static final String ORDER_BY = "ORDER BY b.bill_time DESC, b.bill_id DESC, o.order_id DESC FETCH FIRST ? ROWS ONLY";
+    // Bills at or before the cursor's bill; its own lines are then cut at the cursor's order_id
+    private static final String BILLS_UP_TO_CURSOR = "bill_time <= ? AND (bill_time < ? OR bill_id <= ?)";
+    private static final String LINES_AFTER_CURSOR = "(o.bill_id <> ? OR o.order_id < ?)";
+    private static final String ITEM_PREFIX = "o.item_name LIKE ? ESCAPE '\\'";
+    private static final String AFTER_CURSOR =
+            "(b.bill_time < ? OR (b.bill_time = ? AND (b.bill_id < ? OR (b.bill_id = ? AND o.order_id < ?))))";
+
+    private static final Metrics.Counter CANCELLED = Metrics.global().counter("history.search.cancelled");
+    private static final Metrics.Counter WINDOW_MISSES = Metrics.global().counter("history.search.windowMisses");
+
+    private final int pageSize;
+    private final int fetchSize;
+    private final int maxRows;
+    private final int queryTimeoutSec;
+    private final int searchWindowBills;
+
+    // What the admin searched for; null fields don't restrict. Immutable.
+    public static final class Filter {
+        public static final Filter NONE = new Filter(null, null, null, null, null, null);
+
+        public final Integer billId;
+        public final String itemPrefix;    // item name starts with this (case-sensitive, like the index)
+        public final Timestamp from;       // bill_time >= from
+        public final Timestamp to;         // bill_time < to
+        public final BigDecimal minTotal;  // bill total_amount >= minTotal
+        public final BigDecimal maxTotal;  // bill total_amount <= maxTotal
+
+        public Filter(Integer billId, String itemPrefix, Timestamp from, Timestamp to, BigDecimal minTotal, BigDecimal maxTotal) {
+            this.billId = billId;
+            this.itemPrefix = itemPrefix == null || itemPrefix.isEmpty() ? null : itemPrefix;
+            this.from = from;
+            this.to = to;
+            this.minTotal = minTotal;
+            this.maxTotal = maxTotal;
+        }
+
+        public boolean isEmpty() {
+            return billId == null && itemPrefix == null && from == null && to == null && minTotal == null && maxTotal == null;
+        }
+    }
+
+    // Handed to one fetch so the FX thread can stop it: before the statement runs, the fetch
+    // fails straight away; while it runs, Statement.cancel() asks the database to stop it.
+    public static final class Cancellation {
+        private Statement running;
+        private boolean cancelled;
+
+        private synchronized void started(Statement statement) throws SQLException {
+            if (cancelled) throw new SQLException("Order history query cancelled");
+            running = statement;
+        }
+
+        private synchronized void finished() {
+            running = null;
+        }
+
+        public void cancel() {
+            Statement statement;
+            synchronized (this) {
+                if (cancelled) return;
+                cancelled = true;
+                statement = running;
+            }
+            CANCELLED.increment();
+            if (statement != null) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // it finished in the meantime
+                }
+            }
+        }
+    }
+
+    // Position of the last row on a page; null means "start from the newest row".
+    public static class Cursor {
+        final Timestamp billTime;
+        final int billId;
+        final int orderId;
+
+        Cursor(Timestamp billTime, int billId, int orderId) {
+            this.billTime = billTime;
+            this.billId = billId;
+            this.orderId = orderId;
+        }
+    }
+
+    public static class Page {
+        public final OrderHistoryColumns rows;
+        public final Cursor next;      // pass to the following fetch
+        public final boolean hasMore;  // false once the oldest order has been read
+
+        Page(OrderHistoryColumns rows, Cursor next, boolean hasMore) {
+            this.rows = rows;
+            this.next = next;
+            this.hasMore = hasMore;
+        }
+    }
+
+    public OrderHistoryPager(AppConfig config) {
+        this.pageSize = Math.max(1, config.getInt("history.pageSize", 200));
+        this.fetchSize = Math.max(1, config.getInt("history.fetchSize", pageSize));
+        this.maxRows = Math.max(pageSize, config.getInt("history.maxRows", 500_000));
+        this.queryTimeoutSec = Math.max(0, config.getInt("history.queryTimeoutSec", 10));
+        this.searchWindowBills = Math.max(0, config.getInt("history.searchWindowBills", 5_000));
+    }
+
+    public int getPageSize() { return pageSize; }
+    public int getMaxRows() { return maxRows; }
+
+    public Page fetch(Connection conn, Cursor after) throws SQLException {
+        return fetch(conn, Filter.NONE, after, null);
+    }
+
+    // Runs on a data-access thread. after == null fetches the newest page; cancel may be null.
+    public Page fetch(Connection conn, Filter filter, Cursor after, Cancellation cancel) throws SQLException {
+        // Ask for one extra row so we know whether another page exists without a COUNT(*)
+        int limit = pageSize + 1;
+        boolean sparse = filter.itemPrefix != null || filter.minTotal != null || filter.maxTotal != null;
+        if (!sparse || filter.billId != null) {
+            // One more bill than rows: the cursor's own bill may have no lines left
+            return run(conn, billsFirst(filter, after, limit + 1, limit, false), after, cancel);
+        }
+        if (searchWindowBills > 0) {
+            // A full page from the newest bills is the page; the window only bounds the work
+            Page page = run(conn, billsFirst(filter, after, searchWindowBills, limit, true), after, cancel);
+            if (page.hasMore) return page;
+            WINDOW_MISSES.increment();
+        }
+        if (filter.itemPrefix != null) {
+            return run(conn, byItem(filter, after, limit), after, cancel);
+        }
+        return run(conn, billsFirst(filter, after, limit + 1, limit, false), after, cancel); // by total
+    }
+
+    // SQL text and its parameters, in order
+    static final class PageQuery {
+        final String sql;
+        final List<Object> params;
+
+        PageQuery(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    // The newest maxBills bills passing the bill conditions, then their lines (those with the
+    // item prefix, if there is one). In a window the total range is checked on the newest
+    // maxBills bills instead, so the window caps the bills read rather than the bills matched.
+    static PageQuery billsFirst(Filter filter, Cursor after, int maxBills, int limit, boolean window) {
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        timeConditions(filter, "", where, params);
+        if (!window) totalConditions(filter, "", where, params);
+        if (after != null) {
+            where.add(BILLS_UP_TO_CURSOR);
+            params.add(after.billTime);
+            params.add(after.billTime);
+            params.add(after.billId);
+        }
+        String bills = "SELECT bill_id, bill_time, total_amount FROM bills " + where(where) +
+                "ORDER BY bill_time DESC, bill_id DESC FETCH FIRST ? ROWS ONLY";
+        params.add(maxBills);
+        List<String> lines = new ArrayList<>();
+        if (window) totalConditions(filter, "b.", lines, params);
+        if (filter.itemPrefix != null) {
+            lines.add(ITEM_PREFIX);
+            params.add(likePrefix(filter.itemPrefix));
+        }
+        if (after != null) {
+            lines.add(LINES_AFTER_CURSOR);
+            params.add(after.billId);
+            params.add(after.orderId);
+        }
+        params.add(limit);
+        return new PageQuery(COLUMNS + "FROM (" + bills + ") b JOIN orders o ON o.bill_id = b.bill_id " +
+                where(lines) + ORDER_BY, params);
+    }
+
+    // Every line with the item prefix, found through orders(item_name), joined to its bill and sorted
+    static PageQuery byItem(Filter filter, Cursor after, int limit) {
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        where.add(ITEM_PREFIX);
+        params.add(likePrefix(filter.itemPrefix));
+        timeConditions(filter, "b.", where, params);
+        totalConditions(filter, "b.", where, params);
+        if (after != null) {
+            where.add(AFTER_CURSOR);
+            params.add(after.billTime);
+            params.add(after.billTime);
+            params.add(after.billId);
+            params.add(after.billId);
+            params.add(after.orderId);
+        }
+        params.add(limit);
+        return new PageQuery(COLUMNS + "FROM orders o JOIN bills b ON o.bill_id = b.bill_id " + where(where) + ORDER_BY, params);
+    }
+
+    private static void timeConditions(Filter filter, String b, List<String> where, List<Object> params) {
+        if (filter.billId != null) {
+            where.add(b + "bill_id = ?");
+            params.add(filter.billId);
+        }
+        if (filter.from != null) {
+            where.add(b + "bill_time >= ?");
+            params.add(filter.from);
+        }
+        if (filter.to != null) {
+            where.add(b + "bill_time < ?");
+            params.add(filter.to);
+        }
+    }
+
+    private static void totalConditions(Filter filter, String b, List<String> where, List<Object> params) {
+        if (filter.minTotal != null) {
+            where.add(b + "total_amount >= ?");
+            params.add(filter.minTotal);
+        }
+        if (filter.maxTotal != null) {
+            where.add(b + "total_amount <= ?");
+            params.add(filter.maxTotal);
+        }
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+    }
+
+    private Page run(Connection conn, PageQuery query, Cursor after, Cancellation cancel) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(query.sql)) {
+            ps.setFetchSize(Math.min(fetchSize, pageSize + 1));
+            if (queryTimeoutSec > 0) ps.setQueryTimeout(queryTimeoutSec);
+            for (int i = 0; i < query.params.size(); i++) {
+                ps.setObject(i + 1, query.params.get(i));
+            }
+            if (cancel != null) cancel.started(ps);
+            try {
+                return read(ps, after);
+            } finally {
+                if (cancel != null) cancel.finished();
+            }
+        }
+    }
+
+    // 'abc' -> 'abc%', with LIKE wildcards typed by the user matched literally
+    static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private Page read(PreparedStatement ps, Cursor after) throws SQLException {
+        OrderHistoryColumns rows = new OrderHistoryColumns(pageSize);
+        Timestamp lastTime = null;
+        int lastBillId = 0;
+        int lastOrderId = 0;
+        boolean hasMore = false;
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                if (rows.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                lastTime = rs.getTimestamp("bill_time");
+                lastBillId = rs.getInt("bill_id");
+                lastOrderId = rs.getInt("order_id");
+                rows.add(
+                    lastOrderId,
+                    lastBillId,
+                    rs.getString("item_name"),
+                    Main.toCents(rs.getDouble("item_price")),
+                    rs.getInt("quantity"),
+                    Main.toCents(rs.getDouble("subtotal")),
+                    lastTime
+                );
+            }
+        }
+        if (rows.size() == 0) {
+            return new Page(rows, after, false);
+        }
+        return new Page(rows, new Cursor(lastTime, lastBillId, lastOrderId), hasMore);
+    }
+}
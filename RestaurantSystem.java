@@ -1,28 +1,58 @@
 package application;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.collections.*;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.util.Duration;
+import java.io.File;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
+import java.time.LocalDate;
 import java.time.LocalDateTime; // Not directly used in latest logic, but good to have if needed for timestamp formatting
 
 // For JavaFX properties
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
 public class Main extends Application {
 
     private Stage primaryStage;
-    private Connection conn;
+    private AppConfig config;
+    private ConnectionPool pool; // Each DB operation borrows its own connection from here
+    private DbExecutor db; // Runs all JDBC work off the JavaFX Application Thread
+    private BillWriter billWriter; // Per-bill commits, or group commit when bills.groupCommit=true
+    private BillJournal billJournal; // Local write-ahead log of bills when journal.enabled=true
+    private JournalReplayer journalReplayer; // Drains billJournal into the database
+    private final Metrics metrics = Metrics.global(); // Timers and counters, see the Diagnostics tab
 
     // --- Data Models (Inner Classes) ---
 
@@ -53,12 +83,14 @@ public class Main extends Application {
 
     public static class CartItem extends MenuItem {
         private final IntegerProperty quantity;
-        private final DoubleProperty subtotal; // Price * Quantity
+        private final DoubleProperty subtotal; // Price * Quantity, for display
+        private final LongProperty subtotalCents; // Exact Price * Quantity; totals are summed from this
 
         public CartItem(MenuItem item, int quantity) {
             super(item.getId(), item.getName(), item.getPrice());
             this.quantity = new SimpleIntegerProperty(quantity);
-            this.subtotal = new SimpleDoubleProperty(item.getPrice() * quantity);
+            this.subtotalCents = new SimpleLongProperty(toCents(item.getPrice()) * quantity);
+            this.subtotal = new SimpleDoubleProperty(subtotalCents.get() / 100.0);
             // Listener to update subtotal if quantity or price changes
             this.quantity.addListener((obs, oldVal, newVal) -> updateSubtotal());
             this.priceProperty().addListener((obs, oldVal, newVal) -> updateSubtotal());
@@ -66,86 +98,124 @@ public class Main extends Application {
 
         public IntegerProperty quantityProperty() { return quantity; }
         public DoubleProperty subtotalProperty() { return subtotal; }
+        public LongProperty subtotalCentsProperty() { return subtotalCents; }
 
         public int getQuantity() { return quantity.get(); }
         public double getSubtotal() { return subtotal.get(); }
+        public long getSubtotalCents() { return subtotalCents.get(); }
 
         public void setQuantity(int quantity) { this.quantity.set(quantity); }
 
         private void updateSubtotal() {
-            this.subtotal.set(getPrice() * getQuantity());
+            this.subtotalCents.set(toCents(getPrice()) * getQuantity());
+            this.subtotal.set(subtotalCents.get() / 100.0);
         }
     }
 
-    public static class OrderHistoryItem {
-        private final IntegerProperty orderId;
-        private final IntegerProperty billId;
-        private final StringProperty itemName;
-        private final DoubleProperty itemPrice;
-        private final IntegerProperty quantity;
-        private final DoubleProperty subtotal;
-        private final StringProperty billTime; // Display as String for simplicity
-
-        public OrderHistoryItem(int orderId, int billId, String itemName, double itemPrice, int quantity, double subtotal, Timestamp billTime) {
-            this.orderId = new SimpleIntegerProperty(orderId);
-            this.billId = new SimpleIntegerProperty(billId);
-            this.itemName = new SimpleStringProperty(itemName);
-            this.itemPrice = new SimpleDoubleProperty(itemPrice);
-            this.quantity = new SimpleIntegerProperty(quantity);
-            this.subtotal = new SimpleDoubleProperty(subtotal);
-            this.billTime = new SimpleStringProperty(billTime != null ? billTime.toString() : "N/A");
-        }
-
-        public IntegerProperty orderIdProperty() { return orderId; }
-        public IntegerProperty billIdProperty() { return billId; }
-        public StringProperty itemNameProperty() { return itemName; }
-        public DoubleProperty itemPriceProperty() { return itemPrice; }
-        public IntegerProperty quantityProperty() { return quantity; }
-        public DoubleProperty subtotalProperty() { return subtotal; }
-        public StringProperty billTimeProperty() { return billTime; }
-
-        public int getOrderId() { return orderId.get(); }
-        public int getBillId() { return billId.get(); }
-        public String getItemName() { return itemName.get(); }
-        public double getItemPrice() { return itemPrice.get(); }
-        public int getQuantity() { return quantity.get(); }
-        public double getSubtotal() { return subtotal.get(); }
-        public String getBillTime() { return billTime.get(); }
+    // Prices have two decimals; round once into exact cents so totals never drift like summed doubles
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
     }
 
 
     // --- UI Components for Menu/Ordering ---
     private TableView<MenuItem> menuTable = new TableView<>();
+    // Rows of the ordering table; kept in step with menuCache on the FX thread
     private ObservableList<MenuItem> menuData = FXCollections.observableArrayList();
-    private ObservableList<CartItem> cartData = FXCollections.observableArrayList();
+    private final MenuCache menuCache = new MenuCache();
+    private MenuStore menuStore; // Menu inserts/updates/deletes; ids from menu.idSequence when set
+    private MenuImport menuImport; // Bulk menu import/export (CSV or JSON)
+    private long menuVersionShown; // Version of the cache snapshot currently in menuData
+    private final Cart cart = new Cart(); // Cart lines indexed by item id, with a running total
     private Label totalBillLabel = new Label("Total: 0.00");
     private DecimalFormat df = new DecimalFormat("0.00"); // For formatting currency
 
     // --- UI Components for Admin Portal ---
-    private TableView<MenuItem> adminMenuTable = new TableView<>();
-    private ObservableList<MenuItem> adminMenuData = FXCollections.observableArrayList();
+    // Admin tables hold row numbers into column arrays (ColumnarRows) rather than row objects
+    private TableView<Integer> adminMenuTable = new TableView<>();
+    private final MenuColumns adminMenu = new MenuColumns();
+    private final ColumnarRows adminMenuRows = new ColumnarRows();
+    private TextField adminMenuFilterField = new TextField();
     private TextField adminItemIdField = new TextField(); // For adding/updating menu item ID
     private TextField adminItemNameField = new TextField();
     private TextField adminItemPriceField = new TextField();
-
-    private TableView<OrderHistoryItem> orderHistoryTable = new TableView<>();
-    private ObservableList<OrderHistoryItem> orderHistoryData = FXCollections.observableArrayList();
+    private ProgressBar menuFileProgress = new ProgressBar(0);
+    private Label menuFileStatusLabel = new Label();
+    private boolean menuFileBusy; // One import/export at a time
+
+    private TableView<Integer> orderHistoryTable = new TableView<>();
+    private final OrderHistoryColumns history = new OrderHistoryColumns(); // Every order line loaded so far
+    private final ColumnarRows historyRows = new ColumnarRows();
+    private TextField historyFilterField = new TextField();
+    // Server-side search (OrderHistoryPager.Filter); runs once typing pauses for history.searchDelayMs
+    private TextField historyBillIdField = new TextField();
+    private TextField historyItemPrefixField = new TextField();
+    private DatePicker historyFromDate = new DatePicker();
+    private DatePicker historyToDate = new DatePicker();
+    private TextField historyMinTotalField = new TextField();
+    private TextField historyMaxTotalField = new TextField();
+    private PauseTransition historySearchDelay;
+    private OrderHistoryPager.Filter historyFilter = OrderHistoryPager.Filter.NONE;
+    private OrderHistoryPager.Cancellation historyFetch; // The page query in flight, if any
+    private Label historyStatusLabel = new Label();
+    private OrderHistoryPager historyPager;
+    private OrderHistoryPager.Cursor historyCursor; // Last row loaded; null = start from newest
+    private boolean historyHasMore = true;
+    private boolean historyLoading;
+    private int historyGeneration; // Bumped on refresh so late pages from an older load are dropped
+    private boolean historyScrollHooked;
+
+    // --- UI Components for the Sales Dashboard ---
+    private Label salesTotalsLabel = new Label();
+    private TableView<SalesSummary.Row> salesDaysTable = newSalesTable("Day", "Bills");
+    private TableView<SalesSummary.Row> salesHoursTable = newSalesTable("Hour", "Bills");
+    private TableView<SalesSummary.Row> salesItemsTable = newSalesTable("Item", "Units");
+
+    // --- UI Components for Diagnostics ---
+    private Label diagnosticsStatusLabel = new Label();
+    private TableView<Metrics.Snapshot> diagnosticsTable = newDiagnosticsTable();
+    private Timeline diagnosticsRefresh; // Refreshes the tab every 2 s while it is showing
 
 
     @Override
     public void start(Stage stage) {
         this.primaryStage = stage;
         primaryStage.setTitle("Restaurant Application");
+        cart.totalCentsProperty().addListener((obs, oldVal, newVal) -> updateTotalBill());
+
+        // --- Configuration ---
+        try {
+            config = AppConfig.load();
+            System.out.println("Configuration loaded from " + config.describeSource());
+            metrics.start(config); // JMX beans and the periodic CSV dump
+        } catch (Exception e) {
+            showAlert("Configuration Error", "Failed to read configuration: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
 
         // --- Driver Loading ---
+        String driverClass = config.getString("db.driver", "oracle.jdbc.driver.OracleDriver");
         try {
-            Class.forName("oracle.jdbc.driver.OracleDriver"); //
+            Class.forName(driverClass);
         } catch (ClassNotFoundException e) {
-            showAlert("Driver Error", "Oracle JDBC Driver not found. Make sure ojdbcX.jar is in your classpath.");
+            showAlert("Driver Error", "JDBC Driver " + driverClass + " not found. Make sure the driver jar (e.g. ojdbcX.jar or h2.jar) is in your classpath.");
             e.printStackTrace();
             return;
         }
 
+        // --- Local bill journal (optional) ---
+        if (config.getBoolean("journal.enabled", false)) {
+            try {
+                billJournal = new BillJournal(config);
+                System.out.println("Bill journal open, " + billJournal.pendingBytes() + " bytes waiting to be replayed.");
+            } catch (Exception e) {
+                showAlert("Journal Error", "Failed to open the local bill journal: " + e.getMessage());
+                e.printStackTrace();
+                return;
+            }
+        }
+
         connectDB(); // Establish connection on startup
 
         // Show login screen first
@@ -154,18 +224,23 @@ public class Main extends Application {
 
     private void connectDB() {
         try {
-            // !!! IMPORTANT: Replace 'your_oracle_username' and 'your_oracle_password' with your actual Oracle DB credentials !!!
-            // The ORA-01017 error indicates this is incorrect.
-            String oracleUrl = "jdbc:oracle:thin:@localhost:1521:XE"; // Adjust port/SID if different for your Oracle XE
-            String username = "system"; // <<< REPLACE THIS
-            String password = "mydbms123"; // <<< REPLACE THIS
-
-            conn = DriverManager.getConnection(oracleUrl, username, password);
-            conn.setAutoCommit(false); // Explicitly set auto-commit to false for Oracle to use manual commit/rollback
-            System.out.println("Oracle Database connected successfully! Auto-commit is OFF.");
+            // Credentials and URL come from restaurant.properties (db.url / db.user / db.password).
+            // An ORA-01017 error means the username/password there is incorrect.
+            // With the journal on, checkout doesn't need the database, so a down database is not fatal
+            pool = new ConnectionPool(config, billJournal == null); // Pooled connections have auto-commit OFF; we commit/rollback manually
+            db = new DbExecutor(pool);
+            billWriter = BillWriter.create(config, pool, db);
+            if (billJournal != null) {
+                journalReplayer = new JournalReplayer(config, billJournal, billWriter, pool);
+            }
+            historyPager = new OrderHistoryPager(config);
+            menuStore = MenuStore.fromConfig(config);
+            menuImport = MenuImport.fromConfig(config, menuStore);
+            menuCache.addListener(snapshot -> Platform.runLater(() -> showMenuSnapshot(snapshot)));
+            System.out.println("Database connection pool started for " + pool.getUrl() + " (max " + pool.getMaxSize() + " connections).");
         } catch (SQLException e) {
-            showAlert("Database Connection Error", "Failed to connect to Oracle database: " + e.getMessage() + "\n" +
-                      "Please check your username, password, and database URL.");
+            showAlert("Database Connection Error", "Failed to connect to database: " + e.getMessage() + "\n" +
+                      "Please check db.url, db.user and db.password in " + config.describeSource() + ".");
             e.printStackTrace();
             System.exit(1);
         }
@@ -188,9 +263,9 @@ public class Main extends Application {
         priceCol.setPrefWidth(100);
 
         menuTable.getColumns().addAll(idCol, nameCol, priceCol);
-        menuTable.setItems(menuData);
+        menuTable.setItems(sortedView(menuData, menuTable)); // Own sort order, shared rows
         menuTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
-        loadMenuItems(); // Load initial data for the menu
+        loadMenuItems(); // Served from the menu cache once it has been loaded
 
         // --- Add to Cart Controls ---
         Spinner<Integer> quantitySpinner = new Spinner<>(1, 10, 1); // Min, Max, Initial
@@ -233,8 +308,7 @@ public class Main extends Application {
         cartQuantityCol.setCellFactory(tc -> new EditingCell()); // Allow editing quantity
         cartQuantityCol.setOnEditCommit(event -> {
             CartItem item = event.getRowValue();
-            item.setQuantity(event.getNewValue());
-            updateTotalBill();
+            item.setQuantity(event.getNewValue()); // Cart total follows via its subtotal listener
         });
 
         TableColumn<CartItem, Double> cartSubtotalCol = new TableColumn<>("Subtotal");
@@ -242,15 +316,14 @@ public class Main extends Application {
         cartSubtotalCol.setPrefWidth(100);
 
         cartTable.getColumns().addAll(cartNameCol, cartQuantityCol, cartSubtotalCol);
-        cartTable.setItems(cartData);
+        cartTable.setItems(cart.getItems());
         cartTable.setEditable(true); // Enable editing for quantity
 
         Button removeItemBtn = new Button("Remove Selected");
         removeItemBtn.setOnAction(e -> {
             CartItem selectedCartItem = cartTable.getSelectionModel().getSelectedItem();
             if (selectedCartItem != null) {
-                cartData.remove(selectedCartItem);
-                updateTotalBill();
+                cart.remove(selectedCartItem);
             } else {
                 showAlert("No Selection", "Please select an item from the cart to remove.");
             }
@@ -259,7 +332,7 @@ public class Main extends Application {
         Button finalizeBillBtn = new Button("Finalize Bill");
         finalizeBillBtn.setOnAction(e -> finalizeBill());
 
-        HBox cartControls = new HBox(10, removeItemBtn, finalizeBillBtn);
+        HBox cartControls = new HBox(10, removeItemBtn, finalizeBillBtn, newBusyIndicator());
         cartControls.setAlignment(Pos.CENTER_LEFT);
 
         VBox cartSection = new VBox(10, new Label("Current Order:"), cartTable, totalBillLabel, cartControls);
@@ -336,92 +409,64 @@ public class Main extends Application {
 
 
     private void addToCart(MenuItem item, int quantity) {
-        // Check if item already in cart to update quantity instead of adding new row
-        boolean found = false;
-        for (CartItem cartItem : cartData) {
-            if (cartItem.getId() == item.getId()) {
-                cartItem.setQuantity(cartItem.getQuantity() + quantity);
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            cartData.add(new CartItem(item, quantity));
-        }
-        updateTotalBill();
+        // Same item again updates its existing row instead of adding a new one (id lookup, no scan)
+        cart.add(item, quantity);
     }
 
     private void updateTotalBill() {
-        double total = 0.0;
-        for (CartItem item : cartData) {
-            total += item.getSubtotal();
-        }
-        totalBillLabel.setText("Total: " + df.format(total));
+        totalBillLabel.setText("Total: " + formatMoney(cart.getTotalCents()));
+    }
+
+    private String formatMoney(long cents) {
+        return df.format(BigDecimal.valueOf(cents, 2));
     }
 
     private void finalizeBill() {
-        if (cartData.isEmpty()) {
+        if (cart.isEmpty()) {
             showAlert("No Items", "The cart is empty. Please add items before finalizing a bill.");
             return;
         }
 
-        double totalAmount = 0.0;
-        for (CartItem item : cartData) {
-            totalAmount += item.getSubtotal();
+        long started = System.nanoTime();
+        long totalCents = cart.getTotalCents();
+        double billTotal = totalCents / 100.0;
+
+        // Snapshot the cart and clear it right away so the terminal can start the next order
+        // while this bill commits in the background.
+        List<CartItem> lines = new ArrayList<>();
+        List<Bill.Line> billLines = new ArrayList<>();
+        for (CartItem item : cart.getItems()) {
+            lines.add(new CartItem(item, item.getQuantity()));
+            billLines.add(new Bill.Line(item.getName(), item.getPrice(), item.getQuantity(), item.getSubtotalCents() / 100.0));
         }
-
-        // Use transaction for multiple inserts (Bill + Orders)
-        try {
-            // 1. Insert into BILLS table to get a new bill_id
-            // Using getGeneratedKeys for Oracle 12c+ IDENTITY columns to retrieve the auto-generated ID
-            String insertBillSql = "INSERT INTO bills (bill_time, total_amount) VALUES (SYSTIMESTAMP, ?)";
-            int newBillId = -1;
-
-            try (PreparedStatement psBill = conn.prepareStatement(insertBillSql, new String[]{"bill_id"})) {
-                psBill.setDouble(1, totalAmount);
-                int rowsAffectedBill = psBill.executeUpdate();
-                if (rowsAffectedBill > 0) {
-                    try (ResultSet rs = psBill.getGeneratedKeys()) {
-                        if (rs.next()) {
-                            newBillId = rs.getInt(1);
-                        }
-                    }
-                }
-            }
-
-            if (newBillId == -1) {
-                 showAlert("Bill Error", "Could not generate bill ID. Check database logs.");
-                 conn.rollback();
-                 return;
-            }
-
-            // 2. Insert each item from the cart into the ORDERS table
-            String insertOrderSql = "INSERT INTO orders (bill_id, item_name, item_price, quantity, subtotal) VALUES (?, ?, ?, ?, ?)";
-            try (PreparedStatement psOrder = conn.prepareStatement(insertOrderSql)) {
-                for (CartItem item : cartData) {
-                    psOrder.setInt(1, newBillId);
-                    psOrder.setString(2, item.getName());
-                    psOrder.setDouble(3, item.getPrice());
-                    psOrder.setInt(4, item.getQuantity());
-                    psOrder.setDouble(5, item.getSubtotal());
-                    psOrder.addBatch(); // Add to batch for efficiency
-                }
-                psOrder.executeBatch(); // Execute all inserts at once
+        cart.clear();
+
+        CompletableFuture<String> receipt;
+        if (billJournal != null) {
+            // Checkout completes once the bill is on local disk; the replayer posts it to the database
+            Bill bill = Bill.journaled(billTotal, billLines);
+            receipt = db.supply("journal.append", () -> {
+                billJournal.append(bill);
+                return "Bill " + bill.getRef().substring(0, 8);
+            });
+        } else {
+            // Bill + order lines are written in one transaction (shared with other bills in group-commit mode)
+            receipt = billWriter.submit(new Bill(billTotal, billLines)).thenApply(newBillId -> "Bill #" + newBillId);
+        }
+        receipt.whenCompleteAsync((billLabel, error) -> {
+            recordAction("finalizeBill", started);
+            if (error == null) {
+                showAlert("Bill Finalized", billLabel + " finalized successfully! Total: " + formatMoney(totalCents));
+                return;
             }
-
-            conn.commit(); // Commit the transaction
-            showAlert("Bill Finalized", "Bill #" + newBillId + " finalized successfully! Total: " + df.format(totalAmount));
-            cartData.clear(); // Clear cart after bill is finalized
-            updateTotalBill(); // Reset total
-        } catch (SQLException e) {
-            try {
-                if (conn != null) conn.rollback(); // Rollback if any error occurs
-            } catch (SQLException ex) {
-                ex.printStackTrace();
+            // Put the items back so the sale isn't lost; they merge with anything rung up meanwhile
+            for (CartItem item : lines) {
+                addToCart(item, item.getQuantity());
             }
-            showAlert("Bill Error", "Failed to finalize bill: " + e.getMessage());
-            e.printStackTrace();
-        }
+            Throwable cause = DbExecutor.unwrap(error);
+            showAlert("Bill Error", "Failed to finalize bill: " + cause.getMessage());
+            cause.printStackTrace();
+        }, DbExecutor.FX);
     }
 
 
@@ -445,11 +490,17 @@ public class Main extends Application {
         Button loginButton = new Button("Login");
         loginButton.setDefaultButton(true);
         loginButton.setOnAction(e -> {
-            if (authenticate(usernameField.getText(), passwordField.getText())) {
-                showAdminPortal();
-            } else {
-                showAlert("Login Failed", "Invalid username or password."); //
-            }
+            loginButton.setDisable(true); // Prevent double submits while the lookup runs
+            long started = System.nanoTime();
+            authenticate(usernameField.getText(), passwordField.getText()).whenCompleteAsync((ok, error) -> {
+                recordAction("login", started);
+                loginButton.setDisable(false);
+                if (Boolean.TRUE.equals(ok)) {
+                    showAdminPortal();
+                } else if (error == null) {
+                    showAlert("Login Failed", "Invalid username or password."); //
+                }
+            }, DbExecutor.FX);
         });
 
         Button backToOrderingBtn = new Button("Back to Ordering");
@@ -467,30 +518,37 @@ public class Main extends Application {
         primaryStage.show();
     }
 
-    private boolean authenticate(String username, String password) {
-        if (conn == null) {
+    private CompletableFuture<Boolean> authenticate(String username, String password) {
+        if (db == null) {
             showAlert("Error", "Database connection is not established.");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         // IMPORTANT: The SQL script creates the 'admin' table.
         // If you are still getting ORA-00942 here, the 'admin' table was not created successfully.
         // You MUST run the SQL script mentioned at the top of this file first.
         String sql = "SELECT password FROM admin WHERE username = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, username);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    String storedPassword = rs.getString("password");
-                    // In a real app, hash and salt passwords, then use a secure comparison (e.g., BCrypt)
-                    return storedPassword.equals(password);
+        CompletableFuture<Boolean> result = db.submit("login", conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, username);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        String storedPassword = rs.getString("password");
+                        // In a real app, hash and salt passwords, then use a secure comparison (e.g., BCrypt)
+                        return storedPassword.equals(password);
+                    }
                 }
             }
-        } catch (SQLException e) {
-            showAlert("Authentication Error", "Database error during login: " + e.getMessage() + "\n" +
-                      "Ensure 'admin' table exists and your database user has access.");
-            e.printStackTrace();
-        }
-        return false;
+            return false;
+        });
+        result.whenCompleteAsync((ok, error) -> {
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                showAlert("Authentication Error", "Database error during login: " + cause.getMessage() + "\n" +
+                          "Ensure 'admin' table exists and your database user has access.");
+                cause.printStackTrace();
+            }
+        }, DbExecutor.FX);
+        return result;
     }
 
     private void showAdminPortal() {
@@ -501,26 +559,23 @@ public class Main extends Application {
         menuTab.setClosable(false);
 
         // Menu table for admin
-        TableColumn<MenuItem, Integer> adminIdCol = new TableColumn<>("ID");
-        adminIdCol.setCellValueFactory(cell -> cell.getValue().idProperty().asObject());
-        TableColumn<MenuItem, String> adminNameCol = new TableColumn<>("Name");
-        adminNameCol.setCellValueFactory(cell -> cell.getValue().nameProperty());
-        TableColumn<MenuItem, Double> adminPriceCol = new TableColumn<>("Price");
-        adminPriceCol.setCellValueFactory(cell -> cell.getValue().priceProperty().asObject());
+        TableColumn<Integer, Integer> adminIdCol = rowColumn("ID", adminMenu::id, adminMenuRows, adminMenu.byId());
+        TableColumn<Integer, String> adminNameCol = rowColumn("Name", adminMenu::name, adminMenuRows, adminMenu.byName());
+        TableColumn<Integer, Double> adminPriceCol = rowColumn("Price", adminMenu::price, adminMenuRows, adminMenu.byPrice());
         adminMenuTable.getColumns().addAll(adminIdCol, adminNameCol, adminPriceCol);
-        adminMenuTable.setItems(adminMenuData);
+        adminMenuRows.attach(adminMenuTable);
         adminMenuTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
-                adminItemIdField.setText(String.valueOf(newVal.getId()));
-                adminItemNameField.setText(newVal.getName());
-                adminItemPriceField.setText(String.valueOf(newVal.getPrice()));
+                adminItemIdField.setText(String.valueOf(adminMenu.id(newVal)));
+                adminItemNameField.setText(adminMenu.name(newVal));
+                adminItemPriceField.setText(String.valueOf(adminMenu.price(newVal)));
             } else {
                 adminItemIdField.clear();
                 adminItemNameField.clear();
                 adminItemPriceField.clear();
             }
         });
-        loadMenuItemsForAdmin(); // Load menu items for admin view
+        reloadMenuCache(); // Re-read the menu table so edits made on other machines show up here too
 
         // Controls for Add/Update/Delete
         adminItemIdField.setPromptText("ID (for Update/Delete)");
@@ -544,12 +599,28 @@ public class Main extends Application {
         HBox adminMenuControls = new HBox(10, addMenuItemBtn, updateMenuItemBtn, deleteMenuItemBtn, clearFieldsBtn);
         adminMenuControls.setAlignment(Pos.CENTER_LEFT);
 
+        // Bulk import/export of the whole menu as CSV or JSON
+        Button importMenuBtn = new Button("Import...");
+        importMenuBtn.setOnAction(e -> importMenuFile());
+        Button exportMenuBtn = new Button("Export...");
+        exportMenuBtn.setOnAction(e -> exportMenuFile());
+        menuFileProgress.setVisible(false);
+        HBox menuFileControls = new HBox(10, importMenuBtn, exportMenuBtn, menuFileProgress, menuFileStatusLabel);
+        menuFileControls.setAlignment(Pos.CENTER_LEFT);
+
+        // Filters the rows already in memory; no database query
+        adminMenuFilterField.setPromptText("Filter by name or ID");
+        adminMenuFilterField.textProperty().addListener((obs, oldVal, newVal) ->
+                adminMenuRows.setFilter(adminMenu.matching(newVal)));
+
         VBox menuManagementLayout = new VBox(10,
                 new Label("Manage Menu Items:"),
                 //new HBox(10, new Label("ID:"), adminItemIdField),
                 new HBox(10, new Label("Name:"), adminItemNameField),
                 new HBox(10, new Label("Price:"), adminItemPriceField),
                 adminMenuControls,
+                menuFileControls,
+                adminMenuFilterField,
                 adminMenuTable
         );
         menuManagementLayout.setPadding(new Insets(10));
@@ -560,29 +631,65 @@ public class Main extends Application {
         Tab ordersTab = new Tab("View All Orders");
         ordersTab.setClosable(false);
 
-        // Order History Table
-        TableColumn<OrderHistoryItem, Integer> ohOrderIdCol = new TableColumn<>("Order ID");
-        ohOrderIdCol.setCellValueFactory(cell -> cell.getValue().orderIdProperty().asObject());
-        TableColumn<OrderHistoryItem, Integer> ohBillIdCol = new TableColumn<>("Bill ID");
-        ohBillIdCol.setCellValueFactory(cell -> cell.getValue().billIdProperty().asObject());
-        TableColumn<OrderHistoryItem, String> ohItemNameCol = new TableColumn<>("Item Name");
-        ohItemNameCol.setCellValueFactory(cell -> cell.getValue().itemNameProperty());
-        TableColumn<OrderHistoryItem, Double> ohItemPriceCol = new TableColumn<>("Item Price");
-        ohItemPriceCol.setCellValueFactory(cell -> cell.getValue().itemPriceProperty().asObject());
-        TableColumn<OrderHistoryItem, Integer> ohQuantityCol = new TableColumn<>("Quantity");
-        ohQuantityCol.setCellValueFactory(cell -> cell.getValue().quantityProperty().asObject());
-        TableColumn<OrderHistoryItem, Double> ohSubtotalCol = new TableColumn<>("Subtotal");
-        ohSubtotalCol.setCellValueFactory(cell -> cell.getValue().subtotalProperty().asObject());
-        TableColumn<OrderHistoryItem, String> ohBillTimeCol = new TableColumn<>("Bill Time"); // Changed from Order Time
-        ohBillTimeCol.setCellValueFactory(cell -> cell.getValue().billTimeProperty());
+        // Order History Table: cells read the column arrays, so only rows on screen have properties
+        TableColumn<Integer, Integer> ohOrderIdCol = rowColumn("Order ID", history::orderId, historyRows, history.byOrderId());
+        TableColumn<Integer, Integer> ohBillIdCol = rowColumn("Bill ID", history::billId, historyRows, history.byBillId());
+        TableColumn<Integer, String> ohItemNameCol = rowColumn("Item Name", history::itemName, historyRows, history.byItemName());
+        TableColumn<Integer, Double> ohItemPriceCol = rowColumn("Item Price", history::itemPrice, historyRows, history.byItemPrice());
+        TableColumn<Integer, Integer> ohQuantityCol = rowColumn("Quantity", history::quantity, historyRows, history.byQuantity());
+        TableColumn<Integer, Double> ohSubtotalCol = rowColumn("Subtotal", history::subtotal, historyRows, history.bySubtotal());
+        TableColumn<Integer, String> ohBillTimeCol = rowColumn("Bill Time", history::billTime, historyRows, history.byBillTime()); // Changed from Order Time
 
         orderHistoryTable.getColumns().addAll( ohOrderIdCol, ohBillIdCol, ohItemNameCol, ohItemPriceCol, ohQuantityCol, ohSubtotalCol, ohBillTimeCol);
-        orderHistoryTable.setItems(orderHistoryData);
+        historyRows.attach(orderHistoryTable); // Column sorting and filtering work on the loaded rows, no re-query
+        historyFilterField.setPromptText("Filter loaded rows by item name or bill ID");
+        historyFilterField.textProperty().addListener((obs, oldVal, newVal) -> {
+            historyRows.setFilter(history.matching(newVal));
+            updateHistoryStatus();
+        });
+
+        // Search: each change restarts the delay, so only the last keystroke queries the database
+        historySearchDelay = new PauseTransition(Duration.millis(config.getInt("history.searchDelayMs", 300)));
+        historySearchDelay.setOnFinished(e -> searchOrderHistory());
+        historyBillIdField.setPromptText("Bill ID");
+        historyBillIdField.setPrefColumnCount(6);
+        historyItemPrefixField.setPromptText("Item name starts with");
+        historyFromDate.setPromptText("From date");
+        historyToDate.setPromptText("To date");
+        historyMinTotalField.setPromptText("Bill total from");
+        historyMinTotalField.setPrefColumnCount(7);
+        historyMaxTotalField.setPromptText("to");
+        historyMaxTotalField.setPrefColumnCount(7);
+        for (TextField field : new TextField[]{historyBillIdField, historyItemPrefixField, historyMinTotalField, historyMaxTotalField}) {
+            field.textProperty().addListener((obs, oldVal, newVal) -> historySearchDelay.playFromStart());
+            field.setOnAction(e -> searchOrderHistory()); // Enter searches at once
+        }
+        historyFromDate.valueProperty().addListener((obs, oldVal, newVal) -> historySearchDelay.playFromStart());
+        historyToDate.valueProperty().addListener((obs, oldVal, newVal) -> historySearchDelay.playFromStart());
+        Button clearSearchBtn = new Button("Clear Search");
+        clearSearchBtn.setOnAction(e -> {
+            historyBillIdField.clear();
+            historyItemPrefixField.clear();
+            historyFromDate.setValue(null);
+            historyToDate.setValue(null);
+            historyMinTotalField.clear();
+            historyMaxTotalField.clear();
+            searchOrderHistory();
+        });
+        HBox historySearchControls = new HBox(10, historyBillIdField, historyItemPrefixField, historyFromDate, historyToDate,
+                historyMinTotalField, historyMaxTotalField, clearSearchBtn);
+        historySearchControls.setAlignment(Pos.CENTER_LEFT);
 
         Button refreshOrdersBtn = new Button("Refresh Orders");
         refreshOrdersBtn.setOnAction(e -> loadOrderHistory());
+        Button loadMoreOrdersBtn = new Button("Load More");
+        loadMoreOrdersBtn.setOnAction(e -> loadNextHistoryPage()); // Fallback when the first page doesn't fill the table
+
+        HBox ordersControls = new HBox(10, refreshOrdersBtn, loadMoreOrdersBtn, historyStatusLabel);
+        ordersControls.setAlignment(Pos.CENTER_LEFT);
 
-        VBox ordersLayout = new VBox(10, new Label("All Placed Orders:"), refreshOrdersBtn, orderHistoryTable);
+        VBox ordersLayout = new VBox(10, new Label("All Placed Orders:"), historySearchControls, ordersControls,
+                historyFilterField, orderHistoryTable);
         ordersLayout.setPadding(new Insets(10));
         ordersTab.setContent(ordersLayout);
 
@@ -596,11 +703,62 @@ public class Main extends Application {
 
         // --- Logout Button ---
         Button logoutBtn = new Button("Logout");
-        logoutBtn.setOnAction(e -> showLoginScreen());
+        logoutBtn.setOnAction(e -> {
+            diagnosticsRefresh.stop();
+            historySearchDelay.stop();
+            showLoginScreen();
+        });
+
+        // --- Tab 3: Sales Dashboard ---
+        Tab salesTab = new Tab("Sales Dashboard");
+        salesTab.setClosable(false);
+
+        Button refreshSalesBtn = new Button("Refresh");
+        refreshSalesBtn.setOnAction(e -> loadSalesDashboard());
+
+        HBox salesTables = new HBox(10,
+                new VBox(5, new Label("Revenue per day:"), salesDaysTable),
+                new VBox(5, new Label("Revenue per hour (latest day):"), salesHoursTable),
+                new VBox(5, new Label("Top items:"), salesItemsTable));
+        VBox salesLayout = new VBox(10, new HBox(10, refreshSalesBtn, salesTotalsLabel), salesTables);
+        salesLayout.setPadding(new Insets(10));
+        salesTab.setContent(salesLayout);
 
-        tabPane.getTabs().addAll(menuTab, ordersTab);
+        salesTab.setOnSelectionChanged(e -> {
+            if (salesTab.isSelected()) {
+                loadSalesDashboard();
+            }
+        });
+
+        // --- Tab 4: Diagnostics ---
+        Tab diagnosticsTab = new Tab("Diagnostics");
+        diagnosticsTab.setClosable(false);
+
+        Button refreshDiagnosticsBtn = new Button("Refresh");
+        refreshDiagnosticsBtn.setOnAction(e -> loadDiagnostics());
+        VBox diagnosticsLayout = new VBox(10, new HBox(10, refreshDiagnosticsBtn, diagnosticsStatusLabel),
+                new Label("Since startup. db.* is time on a database thread, ui.* is click to result on screen:"), diagnosticsTable);
+        diagnosticsLayout.setPadding(new Insets(10));
+        diagnosticsTab.setContent(diagnosticsLayout);
+
+        if (diagnosticsRefresh != null) diagnosticsRefresh.stop();
+        diagnosticsRefresh = new Timeline(new KeyFrame(Duration.seconds(2), e -> loadDiagnostics()));
+        diagnosticsRefresh.setCycleCount(Animation.INDEFINITE);
+        diagnosticsTab.setOnSelectionChanged(e -> {
+            if (diagnosticsTab.isSelected()) {
+                loadDiagnostics();
+                diagnosticsRefresh.play();
+            } else {
+                diagnosticsRefresh.stop();
+            }
+        });
 
-        VBox adminRoot = new VBox(10, tabPane, logoutBtn);
+        tabPane.getTabs().addAll(menuTab, ordersTab, salesTab, diagnosticsTab);
+
+        HBox adminFooter = new HBox(10, logoutBtn, newBusyIndicator());
+        adminFooter.setAlignment(Pos.CENTER);
+
+        VBox adminRoot = new VBox(10, tabPane, adminFooter);
         adminRoot.setPadding(new Insets(20));
         adminRoot.setAlignment(Pos.CENTER);
 
@@ -609,46 +767,90 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    // Menu reads on the ordering path come from the cache; only the first load goes to the database.
     private void loadMenuItems() {
-        menuData.clear();
-        if (conn == null) {
+        if (menuCache.isLoaded()) {
+            showMenuSnapshot(menuCache.snapshot());
+        } else {
+            reloadMenuCache();
+        }
+    }
+
+    private void reloadMenuCache() {
+        if (db == null) {
             showAlert("Error", "Database connection is not established.");
             return;
         }
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT id, name, price FROM menu ORDER BY id")) {
-            while (rs.next()) {
-                menuData.add(new MenuItem(rs.getInt("id"), rs.getString("name"), rs.getDouble("price")));
+        long started = System.nanoTime();
+        db.submit("menu.reload", menuCache::reload).whenCompleteAsync((snapshot, error) -> {
+            recordAction("menu.reload", started);
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                showAlert("Load Menu Error", "Failed to load menu items: " + cause.getMessage() + "\n" +
+                          "Ensure 'menu' table exists and your database user has access.");
+                cause.printStackTrace();
+                return;
             }
-            System.out.println("Menu items loaded for order screen: " + menuData.size());
-        } catch (SQLException e) {
-            showAlert("Load Menu Error", "Failed to load menu items: " + e.getMessage() + "\n" +
-                      "Ensure 'menu' table exists and your database user has access.");
-            e.printStackTrace();
-        }
+            System.out.println("Menu cache loaded: " + snapshot.size() + " items (version " + snapshot.version + ")");
+        }, DbExecutor.FX);
     }
 
-    private void loadMenuItemsForAdmin() {
-        adminMenuData.clear();
-        if (conn == null) {
-            showAlert("Error", "Database connection is not established.");
-            return;
+    // Bring menuData and the admin menu table in line with a cache snapshot. Existing rows are
+    // updated in place so the ordering table keeps its selection; rows are only added/removed
+    // when the set of ids changed.
+    private void showMenuSnapshot(MenuCache.Snapshot snapshot) {
+        if (snapshot.version <= menuVersionShown) return; // An older snapshot arrived late
+        menuVersionShown = snapshot.version;
+
+        Map<Integer, MenuItem> existing = new HashMap<>();
+        for (MenuItem item : menuData) {
+            existing.put(item.getId(), item);
         }
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT id, name, price FROM menu ORDER BY id")) {
-            while (rs.next()) {
-                adminMenuData.add(new MenuItem(rs.getInt("id"), rs.getString("name"), rs.getDouble("price")));
+        List<MenuItem> next = new ArrayList<>(snapshot.size());
+        for (MenuCache.Entry entry : snapshot.items()) {
+            MenuItem item = existing.get(entry.id);
+            if (item == null) {
+                item = new MenuItem(entry.id, entry.name, entry.price);
+            } else {
+                item.setName(entry.name);
+                item.setPrice(entry.price);
             }
-            System.out.println("Menu items loaded for admin: " + adminMenuData.size());
-        } catch (SQLException e) {
-            showAlert("Load Menu Error", "Failed to load menu items for admin: " + e.getMessage() + "\n" +
-                      "Ensure 'menu' table exists and your database user has access.");
-            e.printStackTrace();
+            next.add(item);
+        }
+        if (!next.equals(menuData)) {
+            menuData.setAll(next);
+        }
+
+        // The admin table is rebuilt from the snapshot; keep the same item selected
+        Integer selected = adminMenuTable.getSelectionModel().getSelectedItem();
+        int selectedId = selected != null ? adminMenu.id(selected) : -1;
+        adminMenu.load(snapshot);
+        adminMenuRows.reset(adminMenu.size());
+        int row = selectedId >= 0 ? adminMenu.rowOf(selectedId) : -1;
+        if (row >= 0) {
+            adminMenuTable.getSelectionModel().select(Integer.valueOf(row));
         }
     }
 
+    // Table column over row numbers (ColumnarRows): the value is read from the columns when the
+    // cell is shown, and the column sorts by the given order
+    private static <T> TableColumn<Integer, T> rowColumn(String title, IntFunction<T> value,
+                                                         ColumnarRows rows, ColumnarRows.RowComparator order) {
+        TableColumn<Integer, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        rows.sortable(column, order);
+        return column;
+    }
+
+    // The table sorts its own view without reordering the list underneath
+    private static <T> SortedList<T> sortedView(ObservableList<T> source, TableView<T> table) {
+        SortedList<T> sorted = new SortedList<>(source);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        return sorted;
+    }
+
     private void addMenuItem() {
-        if (conn == null) return;
+        if (db == null) return;
         String name = adminItemNameField.getText();
         double price;
         try {
@@ -662,43 +864,27 @@ public class Main extends Application {
             return;
         }
 
-        // Find max ID and add 1 (for menu items, as 'id' in menu table is not IDENTITY in the SQL script)
-        int nextId = 1;
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT NVL(MAX(id), 0) + 1 FROM menu")) { // Use NVL for empty table
-            if (rs.next()) {
-                nextId = rs.getInt(1);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert("Database Error", "Could not determine next ID for menu item: " + e.getMessage());
-            return;
-        }
-
-        String sql = "INSERT INTO menu (id, name, price) VALUES (?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, nextId);
-            ps.setString(2, name);
-            ps.setDouble(3, price);
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected > 0) {
-                conn.commit();
-                showAlert("Success", "Menu item added.");
-                loadMenuItemsForAdmin(); // Refresh admin view
-                loadMenuItems(); // Refresh order screen view
-                clearAdminFields();
+        long started = System.nanoTime();
+        db.submit("menu.add", conn -> {
+            int newId = menuStore.insert(conn, name, price); // One INSERT when ids come from a sequence
+            conn.commit();
+            menuCache.put(new MenuCache.Entry(newId, name, price)); // Every screen picks this up
+            return newId;
+        }).whenCompleteAsync((newId, error) -> {
+            recordAction("menu.add", started);
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                showAlert("Database Error", "Failed to add menu item: " + cause.getMessage());
+                cause.printStackTrace();
             } else {
-                showAlert("Error", "Failed to add menu item. No rows affected.");
-                conn.rollback();
+                showAlert("Success", "Menu item added (ID " + newId + ").");
+                clearAdminFields();
             }
-        } catch (SQLException e) {
-            try { if (conn != null) conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
-            showAlert("Database Error", "Failed to add menu item: " + e.getMessage());
-            e.printStackTrace();
-        }
+        }, DbExecutor.FX);
     }
 
     private void updateMenuItem() {
-        if (conn == null) return;
+        if (db == null) return;
         int id;
         double price;
         String name = adminItemNameField.getText();
@@ -714,31 +900,31 @@ public class Main extends Application {
             return;
         }
 
-        String sql = "UPDATE menu SET name = ?, price = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, name);
-            ps.setDouble(2, price);
-           // ps.setInt(3, id);
-            int rowsAffected = ps.executeUpdate();
+        long started = System.nanoTime();
+        db.submit("menu.update", conn -> {
+            int rowsAffected = menuStore.update(conn, id, name, price);
             if (rowsAffected > 0) {
                 conn.commit();
+                menuCache.put(new MenuCache.Entry(id, name, price));
+            }
+            return rowsAffected;
+        }).whenCompleteAsync((rowsAffected, error) -> {
+            recordAction("menu.update", started);
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                showAlert("Database Error", "Failed to update menu item: " + cause.getMessage());
+                cause.printStackTrace();
+            } else if (rowsAffected > 0) {
                 showAlert("Success", "Menu item updated.");
-                loadMenuItemsForAdmin();
-                loadMenuItems();
                 clearAdminFields();
             } else {
                 showAlert("Not Found", "No menu item found with ID: " + id);
-                conn.rollback();
             }
-        } catch (SQLException e) {
-            try { if (conn != null) conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
-            showAlert("Database Error", "Failed to update menu item: " + e.getMessage());
-            e.printStackTrace();
-        }
+        }, DbExecutor.FX);
     }
 
     private void deleteMenuItem() {
-        if (conn == null) return;
+        if (db == null) return;
         int id;
         try {
             id = Integer.parseInt(adminItemIdField.getText());
@@ -750,25 +936,101 @@ public class Main extends Application {
         // In a real app, consider foreign key constraints (e.g., if a menu item is part of a historical order)
         // For this simple app, we'll proceed with deletion.
 
-        String sql = "DELETE FROM menu WHERE id = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            int rowsAffected = ps.executeUpdate();
+        long started = System.nanoTime();
+        db.submit("menu.delete", conn -> {
+            int rowsAffected = menuStore.delete(conn, id);
             if (rowsAffected > 0) {
                 conn.commit();
+                menuCache.remove(id);
+            }
+            return rowsAffected;
+        }).whenCompleteAsync((rowsAffected, error) -> {
+            recordAction("menu.delete", started);
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                showAlert("Database Error", "Failed to delete menu item: " + cause.getMessage());
+                cause.printStackTrace();
+            } else if (rowsAffected > 0) {
                 showAlert("Success", "Menu item deleted.");
-                loadMenuItemsForAdmin();
-                loadMenuItems();
                 clearAdminFields();
             } else {
                 showAlert("Not Found", "No menu item found with ID: " + id);
-                conn.rollback();
             }
-        } catch (SQLException e) {
-            try { if (conn != null) conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
-            showAlert("Database Error", "Failed to delete menu item: " + e.getMessage());
-            e.printStackTrace();
-        }
+        }, DbExecutor.FX);
+    }
+
+    private static FileChooser menuFileChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV (id,name,price)", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON", "*.json"));
+        return chooser;
+    }
+
+    // Upserts every row of the file in batched transactions (MenuImport); the menu table and
+    // cache are re-read once at the end rather than per item.
+    private void importMenuFile() {
+        if (db == null || menuFileBusy) return;
+        File file = menuFileChooser("Import Menu").showOpenDialog(primaryStage);
+        if (file == null) return;
+
+        menuFileBusy = true;
+        menuFileProgress.setVisible(true);
+        menuFileProgress.setProgress(0);
+        menuFileStatusLabel.setText("Importing " + file.getName() + "...");
+        long started = System.nanoTime();
+        db.supply("menu.import", () -> {
+            try (Connection conn = pool.getConnection()) {
+                return menuImport.importFile(conn, file.toPath(), (rows, fraction) -> Platform.runLater(() -> {
+                    menuFileProgress.setProgress(fraction);
+                    menuFileStatusLabel.setText(String.format("Imported %,d items...", rows));
+                }));
+            }
+        }).whenCompleteAsync((result, error) -> {
+            recordAction("menu.import", started);
+            menuFileBusy = false;
+            menuFileProgress.setVisible(false);
+            reloadMenuCache(); // Committed chunks are in the table even when a later one failed
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                menuFileStatusLabel.setText("Import of " + file.getName() + " stopped.");
+                showAlert("Import Error", "Failed to import " + file.getName() + ": " + cause.getMessage() + "\n" +
+                          "Items imported before the error were saved; fix the file and import it again.");
+                cause.printStackTrace();
+            } else {
+                menuFileStatusLabel.setText(String.format("Imported %,d items from %s in %.1f s.",
+                        result.rows, file.getName(), result.elapsedNanos / 1e9));
+            }
+        }, DbExecutor.FX);
+    }
+
+    private void exportMenuFile() {
+        if (db == null || menuFileBusy) return;
+        FileChooser chooser = menuFileChooser("Export Menu");
+        chooser.setInitialFileName("menu.csv");
+        File file = chooser.showSaveDialog(primaryStage);
+        if (file == null) return;
+
+        menuFileBusy = true;
+        menuFileStatusLabel.setText("Exporting to " + file.getName() + "...");
+        long started = System.nanoTime();
+        db.supply("menu.export", () -> {
+            try (Connection conn = pool.getConnection()) {
+                return menuImport.exportFile(conn, file.toPath());
+            }
+        }).whenCompleteAsync((rows, error) -> {
+            recordAction("menu.export", started);
+            menuFileBusy = false;
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                menuFileStatusLabel.setText("Export failed.");
+                showAlert("Export Error", "Failed to export the menu: " + cause.getMessage());
+                cause.printStackTrace();
+            } else {
+                menuFileStatusLabel.setText(String.format("Exported %,d items to %s.", rows, file.getName()));
+            }
+        }, DbExecutor.FX);
     }
 
     private void clearAdminFields() {
@@ -777,39 +1039,250 @@ public class Main extends Application {
         adminItemPriceField.clear();
     }
 
+    // Run the search in the fields now (the delay has passed, or Enter was pressed)
+    private void searchOrderHistory() {
+        historySearchDelay.stop();
+        OrderHistoryPager.Filter filter;
+        try {
+            filter = readHistoryFilter();
+        } catch (IllegalArgumentException e) {
+            historyStatusLabel.setText(e.getMessage());
+            return;
+        }
+        historyFilter = filter;
+        loadOrderHistory();
+    }
+
+    private OrderHistoryPager.Filter readHistoryFilter() {
+        Integer billId = null;
+        String billText = historyBillIdField.getText().trim();
+        if (!billText.isEmpty()) {
+            try {
+                billId = Integer.valueOf(billText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bill ID must be a whole number.");
+            }
+        }
+        LocalDate fromDate = historyFromDate.getValue();
+        LocalDate toDate = historyToDate.getValue();
+        if (fromDate != null && toDate != null && toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("The To date is before the From date.");
+        }
+        return new OrderHistoryPager.Filter(billId, historyItemPrefixField.getText().trim(),
+                fromDate == null ? null : Timestamp.valueOf(fromDate.atStartOfDay()),
+                toDate == null ? null : Timestamp.valueOf(toDate.plusDays(1).atStartOfDay()), // To date is inclusive
+                readAmount(historyMinTotalField), readAmount(historyMaxTotalField));
+    }
+
+    private static BigDecimal readAmount(TextField field) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) return null;
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bill totals must be amounts, e.g. 250.00.");
+        }
+    }
+
+    // Start the order history over from the newest bill matching historyFilter. Further pages
+    // load as the table scrolls. A page still loading for the previous search is cancelled.
     private void loadOrderHistory() {
-        orderHistoryData.clear();
-        if (conn == null) {
+        if (db == null) {
             showAlert("Error", "Database connection is not established.");
             return;
         }
+        historyGeneration++;
+        if (historyFetch != null) {
+            historyFetch.cancel(); // Its result would be dropped anyway; free the connection now
+            historyFetch = null;
+        }
+        historyCursor = null;
+        historyHasMore = true;
+        historyLoading = false;
+        history.clear();
+        historyRows.reset(0);
+        historyRows.setFilter(history.matching(historyFilterField.getText())); // Name codes start over
+        loadNextHistoryPage();
+    }
+
+    private void loadNextHistoryPage() {
+        if (db == null || historyLoading || !historyHasMore) return;
+        if (history.size() >= historyPager.getMaxRows()) {
+            historyHasMore = false;
+            updateHistoryStatus();
+            return;
+        }
+        historyLoading = true;
+        int generation = historyGeneration;
+        OrderHistoryPager.Cursor after = historyCursor;
+        OrderHistoryPager.Filter filter = historyFilter;
+        OrderHistoryPager.Cancellation cancel = new OrderHistoryPager.Cancellation();
+        historyFetch = cancel;
         // Join orders and bills to get the bill_time
         // If you are getting ORA-00942 here for 'orders' or 'bills', then those tables were not created successfully.
         // You MUST run the SQL script mentioned at the top of this file first.
-        String sql = "SELECT o.order_id, o.bill_id, o.item_name, o.item_price, o.quantity, o.subtotal, b.bill_time " +
-                     "FROM orders o JOIN bills b ON o.bill_id = b.bill_id ORDER BY b.bill_time DESC, o.order_id DESC";
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                orderHistoryData.add(new OrderHistoryItem(
-                    rs.getInt("order_id"),
-                    rs.getInt("bill_id"),
-                    rs.getString("item_name"),
-                    rs.getDouble("item_price"),
-                    rs.getInt("quantity"),
-                    rs.getDouble("subtotal"),
-                    rs.getTimestamp("bill_time")
-                ));
+        long started = System.nanoTime();
+        db.submit("history.page", conn -> historyPager.fetch(conn, filter, after, cancel)).whenCompleteAsync((page, error) -> {
+            if (generation != historyGeneration) return; // Refreshed or searched again while this page was loading
+            recordAction(filter.isEmpty() ? "history.page" : "history.search", started);
+            historyLoading = false;
+            historyFetch = null;
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                showAlert("Load Orders Error", "Failed to load order history: " + cause.getMessage() + "\n" +
+                          "Ensure 'orders' and 'bills' tables exist and your database user has access.");
+                cause.printStackTrace();
+                return;
+            }
+            history.addAll(page.rows);
+            historyRows.rowsAdded(history.size()); // Filtered and merged into the current sort order
+            historyCursor = page.next;
+            historyHasMore = page.hasMore && history.size() < historyPager.getMaxRows();
+            updateHistoryStatus();
+            attachHistoryScrollListener();
+            System.out.println("Order history page loaded: " + page.rows.size() + " rows (" + history.size() + " loaded)");
+        }, DbExecutor.FX);
+    }
+
+    private void updateHistoryStatus() {
+        String lines = historyFilter.isEmpty() ? " order lines" : " order lines matching the search";
+        String status = historyRows.isFiltered()
+                ? "Showing " + historyRows.size() + " of " + history.size() + " loaded" + lines
+                : "Showing " + history.size() + lines;
+        if (!historyHasMore) {
+            status += history.size() >= historyPager.getMaxRows()
+                    ? " (display limit reached, Refresh to start again from the newest)"
+                    : " (all loaded)";
+        }
+        historyStatusLabel.setText(status);
+    }
+
+    // Load the next page when the user scrolls near the bottom. The scroll bar only exists once
+    // the table has been skinned, so this is retried after each page until it is found.
+    private void attachHistoryScrollListener() {
+        if (historyScrollHooked) return;
+        for (Node node : orderHistoryTable.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                ScrollBar bar = (ScrollBar) node;
+                bar.valueProperty().addListener((obs, oldVal, newVal) -> {
+                    if (newVal.doubleValue() >= bar.getMax() * 0.9) {
+                        loadNextHistoryPage();
+                    }
+                });
+                historyScrollHooked = true;
+                return;
             }
-            System.out.println("Order history loaded: " + orderHistoryData.size());
-        } catch (SQLException e) {
-            showAlert("Load Orders Error", "Failed to load order history: " + e.getMessage() + "\n" +
-                      "Ensure 'orders' and 'bills' tables exist and your database user has access.");
-            e.printStackTrace();
         }
     }
 
 
+    // --- Sales Dashboard ---
+
+    // Reads only the sales summary tables, never orders, so this stays fast as history grows
+    private void loadSalesDashboard() {
+        if (db == null) {
+            showAlert("Error", "Database connection is not established.");
+            return;
+        }
+        if (!config.getBoolean("sales.summaryTables", false)) {
+            salesTotalsLabel.setText("Sales summaries are off. Run sql/004_sales_summary.sql and set sales.summaryTables=true.");
+            return;
+        }
+        long started = System.nanoTime();
+        db.submit("sales.load", conn -> SalesSummary.load(conn, 31, 50)).whenCompleteAsync((dashboard, error) -> {
+            recordAction("sales.load", started);
+            if (error != null) {
+                Throwable cause = DbExecutor.unwrap(error);
+                showAlert("Load Sales Error", "Failed to load sales summary: " + cause.getMessage() + "\n" +
+                          "Ensure sql/004_sales_summary.sql has been run.");
+                cause.printStackTrace();
+                return;
+            }
+            salesTotalsLabel.setText("Bills: " + dashboard.totalBills
+                    + "    Revenue: " + df.format(dashboard.totalRevenue)
+                    + "    Average bill: " + df.format(dashboard.averageBill()));
+            salesDaysTable.getItems().setAll(dashboard.days);
+            salesHoursTable.getItems().setAll(dashboard.hours);
+            salesItemsTable.getItems().setAll(dashboard.items);
+        }, DbExecutor.FX);
+    }
+
+    private TableView<SalesSummary.Row> newSalesTable(String labelHeader, String countHeader) {
+        TableColumn<SalesSummary.Row, String> labelCol = new TableColumn<>(labelHeader);
+        labelCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().label));
+        labelCol.setPrefWidth(130);
+        TableColumn<SalesSummary.Row, Long> countCol = new TableColumn<>(countHeader);
+        countCol.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().count));
+        TableColumn<SalesSummary.Row, String> revenueCol = new TableColumn<>("Revenue");
+        revenueCol.setCellValueFactory(cell -> new SimpleStringProperty(df.format(cell.getValue().revenue)));
+
+        TableView<SalesSummary.Row> table = new TableView<>();
+        table.getColumns().add(labelCol);
+        table.getColumns().add(countCol);
+        table.getColumns().add(revenueCol);
+        return table;
+    }
+
+
+    // --- Diagnostics ---
+
+    private void loadDiagnostics() {
+        diagnosticsTable.getItems().setAll(metrics.snapshot());
+        String status = pool != null ? "Pool: " + pool.getStats() : "No database";
+        if (billJournal != null) {
+            status += "\nJournal: " + billJournal.pendingBytes() + " bytes pending, "
+                    + journalReplayer.getReplayedBills() + " bills replayed";
+        }
+        diagnosticsStatusLabel.setText(status);
+    }
+
+    private TableView<Metrics.Snapshot> newDiagnosticsTable() {
+        TableView<Metrics.Snapshot> table = new TableView<>();
+        TableColumn<Metrics.Snapshot, String> nameCol = new TableColumn<>("Metric");
+        nameCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().name));
+        nameCol.setPrefWidth(200);
+        TableColumn<Metrics.Snapshot, Long> countCol = new TableColumn<>("Count");
+        countCol.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().count));
+        table.getColumns().add(nameCol);
+        table.getColumns().add(countCol);
+        addDiagnosticsColumn(table, "Mean", Metrics.Snapshot::mean);
+        addDiagnosticsColumn(table, "p50", s -> s.percentile(0.50));
+        addDiagnosticsColumn(table, "p90", s -> s.percentile(0.90));
+        addDiagnosticsColumn(table, "p99", s -> s.percentile(0.99));
+        addDiagnosticsColumn(table, "p99.9", s -> s.percentile(0.999));
+        addDiagnosticsColumn(table, "Max", Metrics.Snapshot::max);
+        TableColumn<Metrics.Snapshot, String> unitCol = new TableColumn<>("Unit");
+        unitCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().isCounter() ? "" : cell.getValue().unit));
+        table.getColumns().add(unitCol);
+        return table;
+    }
+
+    // Counters have a count only, so their value columns stay blank
+    private static void addDiagnosticsColumn(TableView<Metrics.Snapshot> table, String header,
+                                             ToDoubleFunction<Metrics.Snapshot> value) {
+        TableColumn<Metrics.Snapshot, String> col = new TableColumn<>(header);
+        col.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().isCounter() ? ""
+                : String.format("%.3f", value.applyAsDouble(cell.getValue()))));
+        table.getColumns().add(col);
+    }
+
+    // Screen action timings: from the click to the result being on screen
+    private void recordAction(String action, long startNanos) {
+        metrics.timer("ui." + action).recordSince(startNanos);
+    }
+
+    // Spinner shown while any database work is in flight
+    private ProgressIndicator newBusyIndicator() {
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setPrefSize(24, 24);
+        if (db != null) {
+            indicator.visibleProperty().bind(db.busyProperty());
+        } else {
+            indicator.setVisible(false);
+        }
+        return indicator;
+    }
+
     private void showAlert(String title, String msg) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION); // Default to info
         if (title.contains("Error") || title.contains("Failed") || title.contains("Invalid") || title.contains("Not Found")) {
@@ -823,18 +1296,27 @@ public class Main extends Application {
 
     @Override
     public void stop() {
-        if (conn != null) {
-            try {
-                conn.close();
-                System.out.println("Oracle Database connection closed.");
-            } catch (SQLException e) {
-                System.err.println("Error closing Oracle database connection: " + e.getMessage());
-                e.printStackTrace();
-            }
+        if (journalReplayer != null) {
+            journalReplayer.close(); // Anything not replayed yet stays in the journal for next start
+        }
+        if (billWriter != null) {
+            billWriter.close(); // Flush any queued bills first
+        }
+        if (db != null) {
+            db.close(); // Let in-flight bills finish before the pool goes away
+        }
+        if (billJournal != null) {
+            billJournal.close();
+        }
+        if (pool != null) {
+            System.out.println("Connection pool stats: " + pool.getStats());
+            pool.close();
+            System.out.println("Database connection pool closed.");
         }
+        metrics.close(); // Writes the last interval to the CSV file
     }
 
     public static void main(String[] args) {
         launch(args);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package application;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// SalesSummary: keeps the sales_hourly and sales_item summary tables (sql/004_sales_summary.sql)
+// up to date from inside the same transaction that writes the bills, so the dashboard never has
+// to scan orders and the figures are exactly as durable as the bills themselves. A group-commit
+// batch is aggregated in memory first, so a batch of 200 bills costs a handful of MERGEs.
+//
+// Enabled with sales.summaryTables=true.
+public class SalesSummary {
+
+    private static final String MERGE_HOURLY_SQL =
+            "MERGE INTO sales_hourly s USING (SELECT CAST(? AS TIMESTAMP) AS sales_hour, CAST(? AS NUMBER(14, 2)) AS revenue, " +
+            "CAST(? AS NUMBER) AS bill_count FROM dual) d " +
+            "ON (s.sales_hour = d.sales_hour) " +
+            "WHEN MATCHED THEN UPDATE SET s.revenue = s.revenue + d.revenue, s.bill_count = s.bill_count + d.bill_count " +
+            "WHEN NOT MATCHED THEN INSERT (sales_hour, revenue, bill_count) VALUES (d.sales_hour, d.revenue, d.bill_count)";
+    private static final String MERGE_ITEM_SQL =
+            "MERGE INTO sales_item s USING (SELECT CAST(? AS VARCHAR2(100)) AS item_name, CAST(? AS NUMBER) AS units, " +
+            "CAST(? AS NUMBER(14, 2)) AS revenue FROM dual) d " +
+            "ON (s.item_name = d.item_name) " +
+            "WHEN MATCHED THEN UPDATE SET s.units = s.units + d.units, s.revenue = s.revenue + d.revenue " +
+            "WHEN NOT MATCHED THEN INSERT (item_name, units, revenue) VALUES (d.item_name, d.units, d.revenue)";
+
+    // Add these bills to the summary tables. Must run in the caller's transaction, before COMMIT.
+    public void record(Connection conn, List<Bill> bills) throws SQLException {
+        Map<Timestamp, long[]> hours = new TreeMap<>();      // hour -> {revenueCents, bills}
+        Map<String, long[]> items = new TreeMap<>();         // item -> {units, revenueCents}
+        for (Bill bill : bills) {
+            // Bills stamped by the database use SYSTIMESTAMP; the local clock is close enough for an hourly bucket
+            LocalDateTime time = bill.getBillTime() != null ? bill.getBillTime().toLocalDateTime() : LocalDateTime.now();
+            long[] hour = hours.computeIfAbsent(Timestamp.valueOf(time.truncatedTo(ChronoUnit.HOURS)), k -> new long[2]);
+            hour[0] += Main.toCents(bill.getTotalAmount());
+            hour[1]++;
+            for (Bill.Line line : bill.getLines()) {
+                long[] item = items.computeIfAbsent(line.itemName, k -> new long[2]);
+                item[0] += line.quantity;
+                item[1] += Main.toCents(line.subtotal);
+            }
+        }
+        // Sorted keys: terminals always lock summary rows in the same order, so they can't deadlock.
+        // One statement per row (not a JDBC batch) so a failed row can be retried on its own.
+        try (PreparedStatement ps = conn.prepareStatement(MERGE_HOURLY_SQL)) {
+            for (Map.Entry<Timestamp, long[]> e : hours.entrySet()) {
+                ps.setTimestamp(1, e.getKey());
+                ps.setBigDecimal(2, BigDecimal.valueOf(e.getValue()[0], 2));
+                ps.setLong(3, e.getValue()[1]);
+                merge(ps);
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(MERGE_ITEM_SQL)) {
+            for (Map.Entry<String, long[]> e : items.entrySet()) {
+                ps.setString(1, e.getKey());
+                ps.setLong(2, e.getValue()[0]);
+                ps.setBigDecimal(3, BigDecimal.valueOf(e.getValue()[1], 2));
+                merge(ps);
+            }
+        }
+    }
+
+    private static void merge(PreparedStatement ps) throws SQLException {
+        try {
+            ps.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Another terminal inserted the same new hour/item row first. Only this statement was
+            // rolled back, and the row exists now, so running it again takes the UPDATE branch.
+            ps.executeUpdate();
+        }
+    }
+
+    // --- Dashboard queries (small summary tables only) ---
+
+    public static class Row {
+        public final String label;
+        public final long count;       // bills, or units for items
+        public final double revenue;
+
+        Row(String label, long count, double revenue) {
+            this.label = label;
+            this.count = count;
+            this.revenue = revenue;
+        }
+    }
+
+    public static class Dashboard {
+        public final long totalBills;
+        public final double totalRevenue;
+        public final List<Row> days;    // newest first
+        public final List<Row> hours;   // hours of the most recent day
+        public final List<Row> items;   // best sellers first
+
+        Dashboard(long totalBills, double totalRevenue, List<Row> days, List<Row> hours, List<Row> items) {
+            this.totalBills = totalBills;
+            this.totalRevenue = totalRevenue;
+            this.days = days;
+            this.hours = hours;
+            this.items = items;
+        }
+
+        public double averageBill() {
+            return totalBills == 0 ? 0.0 : totalRevenue / totalBills;
+        }
+    }
+
+    public static Dashboard load(Connection conn, int days, int topItems) throws SQLException {
+        long totalBills = 0;
+        double totalRevenue = 0;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT NVL(SUM(bill_count), 0), NVL(SUM(revenue), 0) FROM sales_hourly");
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                totalBills = rs.getLong(1);
+                totalRevenue = rs.getDouble(2);
+            }
+        }
+
+        List<Row> dayRows = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT TRUNC(sales_hour) AS sales_day, SUM(bill_count), SUM(revenue) FROM sales_hourly " +
+                "GROUP BY TRUNC(sales_hour) ORDER BY sales_day DESC FETCH FIRST ? ROWS ONLY")) {
+            ps.setInt(1, days);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    dayRows.add(new Row(rs.getTimestamp(1).toLocalDateTime().toLocalDate().toString(), rs.getLong(2), rs.getDouble(3)));
+                }
+            }
+        }
+
+        List<Row> hourRows = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT sales_hour, bill_count, revenue FROM sales_hourly " +
+                "WHERE sales_hour >= (SELECT TRUNC(MAX(sales_hour)) FROM sales_hourly) ORDER BY sales_hour")) {
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime hour = rs.getTimestamp(1).toLocalDateTime();
+                    hourRows.add(new Row(hour.toLocalDate() + " " + String.format("%02d:00", hour.getHour()), rs.getLong(2), rs.getDouble(3)));
+                }
+            }
+        }
+
+        List<Row> itemRows = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT item_name, units, revenue FROM sales_item ORDER BY revenue DESC FETCH FIRST ? ROWS ONLY")) {
+            ps.setInt(1, topItems);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    itemRows.add(new Row(rs.getString(1), rs.getLong(2), rs.getDouble(3)));
+                }
+            }
+        }
+        return new Dashboard(totalBills, totalRevenue, dayRows, hourRows, itemRows);
+    }
+}
@@ -0,0 +1,53 @@
+package application;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// SequenceIdAllocator: hands out ids from blocks reserved with a single sequence NEXTVAL.
+// The sequence must be created with INCREMENT BY equal to the block size, so each NEXTVAL
+// reserves [value, value + blockSize) for this process alone. Ids from an abandoned block are
+// simply skipped, the same way Oracle's own sequence cache leaves gaps.
+//
+// Configured per table under a key prefix:
+//   bills.idSequence, bills.idBlockSize  - bill ids (empty = let the bills IDENTITY column assign ids)
+//   menu.idSequence, menu.idBlockSize    - menu item ids (empty = MAX(id) + 1, see MenuStore)
+// The block size must match the sequence's INCREMENT BY.
+public class SequenceIdAllocator {
+
+    private final String nextValSql;
+    private final int blockSize;
+    private long next;  // next id to hand out
+    private long limit; // first id past the current block
+
+    public SequenceIdAllocator(String sequenceName, int blockSize) {
+        if (!sequenceName.matches("[A-Za-z][A-Za-z0-9_$#.]*")) {
+            throw new IllegalArgumentException("Invalid sequence name: " + sequenceName);
+        }
+        this.nextValSql = "SELECT " + sequenceName + ".NEXTVAL FROM dual";
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    // null when <prefix>.idSequence is not set
+    static SequenceIdAllocator fromConfig(AppConfig config, String prefix, int defaultBlockSize) {
+        String sequence = config.getString(prefix + ".idSequence", null);
+        return sequence == null ? null
+                : new SequenceIdAllocator(sequence, config.getInt(prefix + ".idBlockSize", defaultBlockSize));
+    }
+
+    // Only touches the database when the current block is used up. NEXTVAL is not part of the
+    // caller's transaction, so a later rollback never hands the same block out twice.
+    public synchronized int nextId(Connection conn) throws SQLException {
+        if (next >= limit) {
+            try (PreparedStatement ps = conn.prepareStatement(nextValSql); ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Sequence returned no value: " + nextValSql);
+                next = rs.getLong(1);
+                limit = next + blockSize;
+            }
+        }
+        if (next > Integer.MAX_VALUE) {
+            throw new SQLException("Id sequence exhausted the int range: " + next);
+        }
+        return (int) next++;
+    }
+}
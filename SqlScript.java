@@ -0,0 +1,33 @@
+package application;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// SqlScript: runs the plain DDL/DML files under sql/ over JDBC (statements separated by ';',
+// '--' line comments). Used by tools and benchmarks to build a schema in an embedded database.
+// Not a general SQL parser: PL/SQL blocks are not supported.
+public class SqlScript {
+
+    private SqlScript() {}
+
+    public static void run(Connection conn, Path script) throws IOException, SQLException {
+        String text = new String(Files.readAllBytes(script), StandardCharsets.UTF_8)
+                .replaceAll("(?m)^\\s*--.*$", "");
+        try (Statement st = conn.createStatement()) {
+            for (String sql : text.split(";")) {
+                String trimmed = sql.trim();
+                if (trimmed.isEmpty()) continue;
+                if (trimmed.equalsIgnoreCase("COMMIT")) {
+                    conn.commit();
+                } else {
+                    st.execute(trimmed);
+                }
+            }
+        }
+        conn.commit();
+    }
+}
@@ -0,0 +1,150 @@
+package application;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// StatementCache: the prepared statements of one physical connection, kept open across borrows
+// so each SQL string is parsed once per connection instead of once per call. ConnectionPool
+// hands one to every connection it opens and routes prepareStatement(sql) and
+// prepareStatement(sql, keyColumns) through it; callers don't change.
+//
+// A cached statement is lent out while in use (the same SQL twice at once gets a second
+// statement; only one is kept) and returned by close(): parameters and batch are cleared, and fetch
+// size, max rows and query timeout go back to what they were. The least recently used
+// statement is closed once more than capacity are idle.
+//
+//   pool.statementCacheSize - statements kept per connection (0 = no caching)
+class StatementCache {
+
+    private static final Metrics.Counter HITS = Metrics.global().counter("db.statementCache.hits");
+    private static final Metrics.Counter MISSES = Metrics.global().counter("db.statementCache.misses");
+
+    private static class Cached {
+        final String key;
+        final PreparedStatement physical;
+        final int fetchSize;
+        final int maxRows;
+        final int queryTimeout;
+
+        Cached(String key, PreparedStatement physical) throws SQLException {
+            this.key = key;
+            this.physical = physical;
+            this.fetchSize = physical.getFetchSize();
+            this.maxRows = physical.getMaxRows();
+            this.queryTimeout = physical.getQueryTimeout();
+        }
+    }
+
+    private final Connection physical;
+    private final int capacity;
+    private final LinkedHashMap<String, Cached> idle = new LinkedHashMap<>(16, 0.75f, true); // LRU order
+    private boolean closed;
+
+    StatementCache(Connection physical, int capacity) {
+        this.physical = physical;
+        this.capacity = capacity;
+    }
+
+    // owner is the pooled connection the caller holds; getConnection() on the statement returns it
+    synchronized PreparedStatement prepare(Connection owner, String sql, String[] keyColumns) throws SQLException {
+        String key = keyColumns == null ? sql : sql + "\u0000" + String.join(",", keyColumns);
+        Cached cached = idle.remove(key);
+        if (cached != null) {
+            HITS.increment();
+        } else {
+            MISSES.increment();
+            cached = new Cached(key, keyColumns == null
+                    ? physical.prepareStatement(sql) : physical.prepareStatement(sql, keyColumns));
+        }
+        return lend(owner, cached);
+    }
+
+    private synchronized void giveBack(Cached cached) {
+        try {
+            PreparedStatement ps = cached.physical;
+            if (closed || ps.isClosed()) {
+                ps.close();
+                return;
+            }
+            ps.clearParameters();
+            ps.clearBatch();
+            if (ps.getFetchSize() != cached.fetchSize) ps.setFetchSize(cached.fetchSize);
+            if (ps.getMaxRows() != cached.maxRows) ps.setMaxRows(cached.maxRows);
+            if (ps.getQueryTimeout() != cached.queryTimeout) ps.setQueryTimeout(cached.queryTimeout);
+            Cached previous = idle.put(cached.key, cached);
+            if (previous != null) previous.physical.close(); // the same SQL was lent out twice
+            trim();
+        } catch (SQLException e) {
+            close(cached.physical); // can't vouch for its state, so don't reuse it
+        }
+    }
+
+    private void trim() {
+        Iterator<Cached> it = idle.values().iterator();
+        while (idle.size() > capacity && it.hasNext()) {
+            Cached eldest = it.next();
+            it.remove();
+            close(eldest.physical);
+        }
+    }
+
+    // Before the physical connection is closed
+    synchronized void closeAll() {
+        closed = true;
+        List<Cached> all = new ArrayList<>(idle.values());
+        idle.clear();
+        for (Cached cached : all) {
+            close(cached.physical);
+        }
+    }
+
+    private static void close(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            // the connection is probably gone as well
+        }
+    }
+
+    // Proxy that returns the statement to the cache on close()
+    private PreparedStatement lend(Connection owner, Cached cached) {
+        AtomicBoolean returned = new AtomicBoolean();
+        PreparedStatement target = cached.physical;
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                if (name.equals("equals")) return proxy == args[0];
+                if (name.equals("hashCode")) return System.identityHashCode(proxy);
+                return "Cached[" + target + "]";
+            }
+            if (name.equals("close")) {
+                if (returned.compareAndSet(false, true)) giveBack(cached);
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned.get() || target.isClosed();
+            }
+            if (returned.get()) {
+                throw new SQLException("Statement is closed.");
+            }
+            if (name.equals("getConnection")) {
+                return owner;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, handler);
+    }
+}
@@ -0,0 +1,159 @@
+package application;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+
+// TableMemoryBenchmark: heap held by the admin tables' row models, one object with a JavaFX
+// property per column (the order history and menu rows before OrderHistoryColumns and
+// MenuColumns) against column arrays shown through ColumnarRows. Also times sorting by item
+// name and by subtotal, and filtering by a name fragment, in both models. No database needed.
+//
+//   java -Xmx2g -cp <classes>:javafx-base.jar:javafx-controls.jar:javafx-graphics.jar \
+//        application.TableMemoryBenchmark [historyLines] [menuItems]
+public class TableMemoryBenchmark {
+
+    private static final int DISTINCT_ITEMS = 300;
+
+    // One order history line as the table held it before: seven properties and a time string
+    static class PropertyRow {
+        private final IntegerProperty orderId;
+        private final IntegerProperty billId;
+        private final StringProperty itemName;
+        private final DoubleProperty itemPrice;
+        private final IntegerProperty quantity;
+        private final DoubleProperty subtotal;
+        private final StringProperty billTime;
+
+        PropertyRow(int orderId, int billId, String itemName, double itemPrice, int quantity, double subtotal, Timestamp billTime) {
+            this.orderId = new SimpleIntegerProperty(orderId);
+            this.billId = new SimpleIntegerProperty(billId);
+            this.itemName = new SimpleStringProperty(itemName);
+            this.itemPrice = new SimpleDoubleProperty(itemPrice);
+            this.quantity = new SimpleIntegerProperty(quantity);
+            this.subtotal = new SimpleDoubleProperty(subtotal);
+            this.billTime = new SimpleStringProperty(billTime != null ? billTime.toString() : "N/A");
+        }
+
+        String getItemName() { return itemName.get(); }
+        double getSubtotal() { return subtotal.get(); }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int menuItems = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        String[] names = new String[DISTINCT_ITEMS];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Menu item " + (i + 1);
+        }
+        System.out.printf("%,d order history lines, %,d menu items%n", lines, menuItems);
+
+        // Names come from the driver as a new String per row, so each row model gets its own copies
+        measure("history, property objects", lines, () -> {
+            ObservableList<PropertyRow> rows = FXCollections.observableArrayList();
+            for (int i = 0; i < lines; i++) {
+                rows.add(new PropertyRow(lines - i, (lines - i) / 3, new String(names[i % DISTINCT_ITEMS]),
+                        price(i) / 100.0, 1 + i % 4, price(i) * (1 + i % 4) / 100.0, time(i)));
+            }
+            return rows;
+        });
+        measure("history, OrderHistoryColumns", lines, () -> {
+            OrderHistoryColumns history = new OrderHistoryColumns();
+            for (int i = 0; i < lines; i++) {
+                history.add(lines - i, (lines - i) / 3, new String(names[i % DISTINCT_ITEMS]),
+                        price(i), 1 + i % 4, price(i) * (1 + i % 4), time(i));
+            }
+            ColumnarRows rows = new ColumnarRows();
+            rows.reset(history.size());
+            return new Object[]{history, rows};
+        });
+        // Both menu models are built from the same MenuCache snapshot, which exists either way
+        Map<Integer, MenuCache.Entry> byId = new TreeMap<>();
+        for (int i = 0; i < menuItems; i++) {
+            byId.put(i + 1, new MenuCache.Entry(i + 1, "Item " + (i + 1), price(i) / 100.0));
+        }
+        MenuCache.Snapshot snapshot = new MenuCache.Snapshot(1, byId);
+        measure("menu, MenuItem objects", menuItems, () -> {
+            ObservableList<Main.MenuItem> rows = FXCollections.observableArrayList();
+            for (MenuCache.Entry entry : snapshot.items()) {
+                rows.add(new Main.MenuItem(entry.id, entry.name, entry.price));
+            }
+            return rows;
+        });
+        measure("menu, MenuColumns", menuItems, () -> {
+            MenuColumns menu = new MenuColumns();
+            menu.load(snapshot);
+            ColumnarRows rows = new ColumnarRows();
+            rows.reset(menu.size());
+            return new Object[]{menu, rows};
+        });
+
+        // --- Sort and filter ---
+        List<PropertyRow> objects = new ArrayList<>(lines);
+        OrderHistoryColumns history = new OrderHistoryColumns(lines);
+        for (int i = 0; i < lines; i++) {
+            objects.add(new PropertyRow(lines - i, (lines - i) / 3, names[i % DISTINCT_ITEMS],
+                    price(i) / 100.0, 1 + i % 4, price(i) * (1 + i % 4) / 100.0, time(i)));
+            history.add(lines - i, (lines - i) / 3, names[i % DISTINCT_ITEMS], price(i), 1 + i % 4, price(i) * (1 + i % 4), time(i));
+        }
+        ColumnarRows columnar = new ColumnarRows();
+        columnar.reset(history.size());
+        for (int round = 0; round < 3; round++) {
+            boolean last = round == 2;
+            ObservableList<PropertyRow> list = FXCollections.observableArrayList(objects);
+            time(last, "sort by item name, property objects", () -> FXCollections.sort(list, Comparator.comparing(PropertyRow::getItemName)));
+            time(last, "sort by item name, ColumnarRows", () -> columnar.setOrder(history.byItemName()));
+            time(last, "sort by subtotal, property objects", () -> FXCollections.sort(list, Comparator.comparingDouble(PropertyRow::getSubtotal)));
+            time(last, "sort by subtotal, ColumnarRows", () -> columnar.setOrder(history.bySubtotal()));
+            time(last, "filter \"item 12\", property objects", () -> new FilteredList<>(list,
+                    r -> r.getItemName().toLowerCase(Locale.ROOT).contains("item 12")).size());
+            time(last, "filter \"item 12\", ColumnarRows", () -> columnar.setFilter(history.matching("item 12")));
+            columnar.setFilter(null);
+            columnar.setOrder(null);
+        }
+    }
+
+    private static long price(int i) {
+        return 5_000 + (i * 37L) % 50_000;
+    }
+
+    private static Timestamp time(int i) {
+        return new Timestamp(1_700_000_000_000L - i * 20_000L);
+    }
+
+    private static void measure(String label, int rows, Supplier<Object> build) throws InterruptedException {
+        long before = usedHeap();
+        Object model = build.get();
+        long after = usedHeap();
+        System.out.printf("  %-38s %,9d KB  %,6.1f bytes/row  (%s)%n", label, (after - before) / 1024,
+                (after - before) / (double) rows, model.getClass().getSimpleName());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void time(boolean print, String label, Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        if (print) System.out.printf("  %-38s %8.1f ms%n", label, (System.nanoTime() - start) / 1e6);
+    }
+}
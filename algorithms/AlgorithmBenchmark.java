@@ -0,0 +1,596 @@
+package algorithms;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+// AlgorithmBenchmark: average time and allocation per call for every routine in this package,
+// over a range of input sizes and value distributions. Follows JMH's average-time mode and
+// -prof gc "alloc.rate.norm": each cell is warmed up, then every call is timed and its thread
+// allocation counted individually; input arrays are reset between calls outside the timed region.
+//
+//   javac --add-modules jdk.incubator.vector -d out algorithms/*.java
+//   java -Xmx4g --add-modules jdk.incubator.vector -cp out algorithms.AlgorithmBenchmark
+//
+// Without --add-modules at run time the *Vector routines run their scalar fallback (see Vectorized).
+//
+// Settings (system properties):
+//   bench.sizes          comma-separated input sizes (default 100 .. 100000000, powers of ten)
+//   bench.routines       only these routines, comma-separated (default all)
+//   bench.distributions  uniform, skewed, duplicates (default all)
+//   bench.warmupMs       warmup time per cell (default 300)
+//   bench.measureMs      measured time per cell (default 1000); at least 3 calls are always measured
+//   bench.csv            also write the results to this CSV file
+//   bench.parallelism    pool sizes for the *Parallel routines, each reported as name/pN
+//                        (default 1, 2, 4, ... up to the number of cpus, and the cpu count itself)
+//
+// Cells that would not fit in the heap are reported as "skipped"; 1e8 needs roughly -Xmx2g for
+// the in-place routines and far more for the boxed-HashMap ones. Baseline: benchmark-baseline.txt
+public class AlgorithmBenchmark {
+
+    // How input values are drawn. Every routine maps these to its own domain (e.g. % 3 for colors).
+    enum Distribution {
+        UNIFORM,     // uniform in [0, n): mostly distinct
+        SKEWED,      // log-uniform in [0, n): small values repeat heavily, long tail of distinct ones
+        DUPLICATES;  // every value the same (0)
+
+        int[] generate(int n, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] data = new int[n];
+            double logN = Math.log(Math.max(2, n));
+            for (int i = 0; i < n; i++) {
+                switch (this) {
+                    case UNIFORM: data[i] = random.nextInt(Math.max(1, n)); break;
+                    case SKEWED: data[i] = (int) Math.exp(random.nextDouble() * logN) - 1; break;
+                    default: data[i] = 0; break;
+                }
+            }
+            return data;
+        }
+    }
+
+    // One prepared call: reset() restores the input (not timed), run() is the measured call and
+    // returns a digest of its result (a long, so that boxing never shows up in B/op).
+    interface Call {
+        void reset();
+        long run();
+    }
+
+    interface CallFactory {
+        Call create(int[] data, int[] other);
+    }
+
+    static final class Routine {
+        final String name;
+        final int bytesPerElement; // rough peak heap per input element, to skip cells that cannot fit
+        final boolean needsOther;  // takes a second, independently generated array
+        final CallFactory factory;
+
+        Routine(String name, int bytesPerElement, boolean needsOther, CallFactory factory) {
+            this.name = name;
+            this.bytesPerElement = bytesPerElement;
+            this.needsOther = needsOther;
+            this.factory = factory;
+        }
+    }
+
+    static final class Result {
+        final String routine;
+        final Distribution distribution;
+        final long size;
+        final double nsPerOp;
+        final double bytesPerOp; // negative when the JVM cannot count allocations
+        final long ops;
+        final String note;
+
+        Result(String routine, Distribution distribution, long size, double nsPerOp, double bytesPerOp, long ops, String note) {
+            this.routine = routine;
+            this.distribution = distribution;
+            this.size = size;
+            this.nsPerOp = nsPerOp;
+            this.bytesPerOp = bytesPerOp;
+            this.ops = ops;
+            this.note = note;
+        }
+    }
+
+    private static final long SEED = 42;
+    private static final int SUDOKU_BOARDS = 1024;
+    private static final int SUDOKU_BATCH = 1 << 16; // boards per batch call, the board set repeated
+
+    private static volatile long sink; // keeps results alive so the JIT cannot drop the calls
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+            if (counter.isThreadAllocatedMemorySupported()) {
+                counter.setThreadAllocatedMemoryEnabled(true);
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    // --- Routines ---
+
+    static Map<String, Routine> routines() {
+        Map<String, Routine> routines = new LinkedHashMap<>();
+        add(routines, new Routine("twoSum", 24, false, (data, other) -> {
+            int[] nums = twoSumWorstCase(data);
+            return call(null, () -> {
+                int[] pair = TwoSum.twoSum(nums, -1);
+                return pair[0] + pair[1];
+            });
+        }));
+        add(routines, new Routine("twoSumBoxed", 84, false, (data, other) -> {
+            int[] nums = twoSumWorstCase(data);
+            return call(null, () -> {
+                int[] pair = TwoSum.twoSumBoxed(nums, -1);
+                return pair[0] + pair[1];
+            });
+        }));
+        add(routines, new Routine("containsDuplicate", 8, false,
+                (data, other) -> call(null, () -> ContainsDuplicate.containsDuplicate(data) ? 1 : 0)));
+        add(routines, new Routine("containsDuplicateHashSet", 24, false,
+                (data, other) -> call(null, () -> ContainsDuplicate.containsDuplicateHashSet(data) ? 1 : 0)));
+        add(routines, new Routine("containsDuplicateDetector", 24, false, (data, other) -> {
+            ContainsDuplicate.Detector detector = new ContainsDuplicate.Detector(data.length);
+            return call(null, () -> detector.containsDuplicate(data) ? 1 : 0);
+        }));
+        add(routines, new Routine("containsDuplicateParallelSort", 8, false,
+                (data, other) -> call(null, () -> ContainsDuplicate.containsDuplicateParallelSort(data) ? 1 : 0)));
+        add(routines, new Routine("containsDuplicateInPlace", 8, false, (data, other) -> {
+            int[] work = data.clone();
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> ContainsDuplicate.containsDuplicateInPlace(work) ? 1 : 0);
+        }));
+        add(routines, new Routine("intersect", 32, true,
+                (data, other) -> call(null, () -> Intersection.intersect(data, other).length)));
+        add(routines, new Routine("intersectBoxed", 120, true,
+                (data, other) -> call(null, () -> Intersection.intersectBoxed(data, other).length)));
+        add(routines, new Routine("intersectHashed", 32, true,
+                (data, other) -> call(null, () -> Intersection.intersectHashed(data, other).length)));
+        add(routines, new Routine("intersectSorted", 12, true, (data, other) -> {
+            int[] a = data.clone(), b = other.clone();
+            Arrays.sort(a);
+            Arrays.sort(b);
+            return call(null, () -> Intersection.intersect(a, b).length);
+        }));
+        // nums1 a 1/64 sample: strategies that build on the bigger side pay for it here
+        add(routines, new Routine("intersectSkewed", 32, true, (data, other) -> {
+            int[] few = Arrays.copyOf(other, Math.max(1, other.length / 64));
+            return call(null, () -> Intersection.intersect(data, few).length);
+        }));
+        add(routines, new Routine("intersectSkewedHashed", 32, true, (data, other) -> {
+            int[] few = Arrays.copyOf(other, Math.max(1, other.length / 64));
+            return call(null, () -> Intersection.intersectHashed(data, few).length);
+        }));
+        add(routines, new Routine("intersectSkewedSorted", 12, true, (data, other) -> {
+            int[] a = data.clone(), few = Arrays.copyOf(other, Math.max(1, other.length / 64));
+            Arrays.sort(a);
+            Arrays.sort(few);
+            return call(null, () -> Intersection.intersect(a, few).length);
+        }));
+        add(routines, new Routine("removeDuplicates", 32, false, (data, other) -> {
+            int[] work = data.clone();
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> RemoveDuplicates.removeDuplicates(work));
+        }));
+        add(routines, new Routine("removeDuplicatesScratch", 32, false, (data, other) -> {
+            int[] work = data.clone();
+            IntHashSet scratch = new IntHashSet(data.length);
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> RemoveDuplicates.removeDuplicates(work, scratch));
+        }));
+        add(routines, new Routine("removeDuplicatesSortedInput", 12, false, (data, other) -> {
+            int[] sorted = data.clone();
+            Arrays.sort(sorted);
+            int[] work = sorted.clone();
+            return call(() -> System.arraycopy(sorted, 0, work, 0, sorted.length), () -> RemoveDuplicates.removeDuplicates(work));
+        }));
+        add(routines, new Routine("removeDuplicatesBoxed", 100, false, (data, other) -> {
+            int[] work = data.clone();
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> RemoveDuplicates.removeDuplicatesBoxed(work));
+        }));
+        add(routines, new Routine("rotate", 8, false, (data, other) -> {
+            int[] work = data.clone();
+            int k = data.length / 3;
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                RotateArray.rotate(work, k);
+                return work[0];
+            });
+        }));
+        // Same rotation through each algorithm rotate chooses between (1e7 and up is past any L3)
+        add(routines, new Routine("rotateReversal", 8, false, (data, other) -> {
+            int[] work = data.clone();
+            int k = data.length / 3;
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                RotateArray.rotateReversal(work, k);
+                return work[0];
+            });
+        }));
+        add(routines, new Routine("rotateJuggling", 8, false, (data, other) -> {
+            int[] work = data.clone();
+            int k = data.length / 3;
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                RotateArray.rotateJuggling(work, k);
+                return work[0];
+            });
+        }));
+        add(routines, new Routine("rotateBlockSwap", 8, false, (data, other) -> {
+            int[] work = data.clone();
+            int k = data.length / 3;
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                RotateArray.rotateBlockSwap(work, k);
+                return work[0];
+            });
+        }));
+        add(routines, new Routine("moveZeroes", 8, false, (data, other) -> {
+            int[] work = data.clone();
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                MoveZeroes.moveZeroes(work);
+                return work[work.length - 1];
+            });
+        }));
+        add(routines, new Routine("singleNumber", 4, false,
+                (data, other) -> call(null, () -> SingleNumber.singleNumber(data))));
+        add(routines, new Routine("sortColors", 8, false, (data, other) -> {
+            int[] colors = new int[data.length];
+            for (int i = 0; i < data.length; i++) colors[i] = data[i] % 3;
+            int[] work = colors.clone();
+            return call(() -> System.arraycopy(colors, 0, work, 0, colors.length), () -> {
+                SortColors.sortColors(work);
+                return work[work.length / 2];
+            });
+        }));
+        add(routines, new Routine("maxProfit", 4, false,
+                (data, other) -> call(null, () -> MaxProfit.maxProfit(data))));
+        String vector = Vectorized.AVAILABLE ? "" : "/scalar"; // fallback results must not pass for SIMD ones
+        add(routines, new Routine("singleNumberVector" + vector, 4, false,
+                (data, other) -> call(null, () -> SingleNumber.singleNumberVector(data))));
+        add(routines, new Routine("maxProfitVector" + vector, 4, false,
+                (data, other) -> call(null, () -> MaxProfit.maxProfitVector(data))));
+        add(routines, new Routine("moveZeroesVector" + vector, 8, false, (data, other) -> {
+            int[] work = data.clone();
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                MoveZeroes.moveZeroesVector(work);
+                return work[work.length - 1];
+            });
+        }));
+        // Key = value range [0, n) split into k equal buckets, so Arrays.sort yields a valid partition too
+        for (int k : new int[] { 3, 16, 256, 4096 }) {
+            String suffix = "/k" + k;
+            add(routines, new Routine("partition" + suffix, 12, false, partitionCall(k, Partition::partition)));
+            add(routines, new Routine("partitionCounting" + suffix, 12, false, partitionCall(k, Partition::partitionCounting)));
+            add(routines, new Routine("partitionInPlace" + suffix, 8, false, partitionCall(k, Partition::partitionInPlace)));
+        }
+        add(routines, new Routine("arraysSort", 8, false, (data, other) -> {
+            int[] work = data.clone();
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                Arrays.sort(work);
+                return work[work.length / 2];
+            });
+        }));
+        add(routines, new Routine("plusOne", 12, false, (data, other) -> {
+            // uniform/skewed give random digits; all-duplicates gives all 9s, the full-carry worst case
+            int[] digits = new int[data.length];
+            for (int i = 0; i < data.length; i++) digits[i] = 9 - data[i] % 10;
+            int[] work = digits.clone();
+            return call(() -> System.arraycopy(digits, 0, work, 0, digits.length), () -> {
+                int[] result = PlusOne.plusOne(work);
+                return result.length + result[0];
+            });
+        }));
+        add(routines, new Routine("plusOnePacked", 12, false, (data, other) -> {
+            int[] digits = new int[data.length];
+            for (int i = 0; i < data.length; i++) digits[i] = 9 - data[i] % 10;
+            BigCounter start = BigCounter.fromDigits(digits);
+            BigCounter work = new BigCounter();
+            return call(() -> work.set(start), () -> {
+                work.increment();
+                return work.digitCount();
+            });
+        }));
+        for (int p : parallelism()) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            String suffix = "/p" + p;
+            add(routines, new Routine("singleNumberParallel" + suffix, 4, false,
+                    (data, other) -> call(null, () -> SingleNumber.singleNumberParallel(data, pool))));
+            add(routines, new Routine("maxProfitParallel" + suffix, 4, false,
+                    (data, other) -> call(null, () -> MaxProfit.maxProfitParallel(data, pool))));
+            add(routines, new Routine("moveZeroesParallel" + suffix, 8, false, (data, other) -> {
+                int[] work = data.clone();
+                return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                    MoveZeroes.moveZeroesParallel(work, pool);
+                    return work[work.length - 1];
+                });
+            }));
+            add(routines, new Routine("sortColorsParallel" + suffix, 12, false, (data, other) -> {
+                int[] colors = new int[data.length];
+                for (int i = 0; i < data.length; i++) colors[i] = data[i] % 3;
+                int[] work = colors.clone();
+                return call(() -> System.arraycopy(colors, 0, work, 0, colors.length), () -> {
+                    SortColors.sortColorsParallel(work, pool);
+                    return work[work.length / 2];
+                });
+            }));
+            add(routines, new Routine("partitionParallel/k256" + suffix, 12, false,
+                    partitionCall(256, (nums, k, key) -> Partition.partitionParallel(nums, k, key, pool))));
+            add(routines, new Routine("rotateParallel" + suffix, 8, false, (data, other) -> {
+                int[] work = data.clone();
+                int k = data.length / 3;
+                return call(() -> System.arraycopy(data, 0, work, 0, data.length), () -> {
+                    RotateArray.rotateParallel(work, k, pool);
+                    return work[0];
+                });
+            }));
+        }
+        return routines;
+    }
+
+    private static List<Integer> parallelism() {
+        List<Integer> sizes = new ArrayList<>();
+        String configured = System.getProperty("bench.parallelism");
+        if (configured != null) {
+            for (String p : list(configured)) sizes.add(Integer.parseInt(p));
+            return sizes;
+        }
+        int cpus = Runtime.getRuntime().availableProcessors();
+        for (int p = 1; p < cpus; p *= 2) sizes.add(p);
+        sizes.add(cpus);
+        return sizes;
+    }
+
+    // Worst case for twoSum: target -1 can only be made with the (negative) last element, so every
+    // element is inserted before the match is found
+    private static int[] twoSumWorstCase(int[] data) {
+        int[] nums = data.clone();
+        nums[nums.length - 1] = -1 - nums[Math.max(0, nums.length - 2)];
+        return nums;
+    }
+
+    private static void add(Map<String, Routine> routines, Routine routine) {
+        routines.put(routine.name, routine);
+    }
+
+    interface PartitionFunction {
+        int[] apply(int[] nums, int k, Partition.IntKey key);
+    }
+
+    private static CallFactory partitionCall(int k, PartitionFunction partition) {
+        return (data, other) -> {
+            int[] work = data.clone();
+            // value * k / n as a multiply and shift: a division per call would dominate the timings
+            long scale = ((long) k << 32) / Math.max(1, data.length);
+            Partition.IntKey key = value -> (int) ((value * scale) >>> 32);
+            return call(() -> System.arraycopy(data, 0, work, 0, data.length),
+                    () -> partition.apply(work, k, key)[k / 2]);
+        };
+    }
+
+    private static Call call(Runnable reset, LongSupplier run) {
+        return new Call() {
+            @Override public void reset() { if (reset != null) reset.run(); }
+            @Override public long run() { return run.getAsLong(); }
+        };
+    }
+
+    // Sudoku has a fixed input size, so it is measured once per distribution, per board:
+    //   uniform    - complete valid boards (every cell checked)
+    //   skewed     - valid puzzles with about half the cells empty
+    //   duplicates - complete boards whose last cell repeats a digit (invalid, found as late as possible)
+    static char[][][] sudokuBoards(Distribution distribution, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        char[][][] boards = new char[SUDOKU_BOARDS][][];
+        for (int b = 0; b < boards.length; b++) {
+            int[] digits = permutation(random, 9);
+            int[] rows = bandPermutation(random);
+            int[] cols = bandPermutation(random);
+            char[][] board = new char[9][9];
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++) {
+                    int rr = rows[r], cc = cols[c];
+                    int value = (rr * 3 + rr / 3 + cc) % 9; // a known valid pattern, shuffled above
+                    board[r][c] = (char) ('1' + digits[value]);
+                    if (distribution == Distribution.SKEWED && random.nextBoolean()) {
+                        board[r][c] = '.';
+                    }
+                }
+            }
+            if (distribution == Distribution.DUPLICATES) {
+                board[8][8] = board[8][7];
+            }
+            boards[b] = board;
+        }
+        return boards;
+    }
+
+    // count boards in the batch layout of ValidSudoku, cycling through boards
+    static byte[] sudokuBatch(char[][][] boards, int count) {
+        byte[] batch = new byte[count * ValidSudoku.BOARD_BYTES];
+        for (int b = 0; b < count; b++) {
+            char[][] board = boards[b % boards.length];
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++) {
+                    batch[b * ValidSudoku.BOARD_BYTES + r * 9 + c] = (byte) board[r][c];
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static int[] permutation(SplittableRandom random, int n) {
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) p[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = p[i]; p[i] = p[j]; p[j] = t;
+        }
+        return p;
+    }
+
+    // Rows (or columns) shuffled within their band, and bands shuffled: keeps the board valid
+    private static int[] bandPermutation(SplittableRandom random) {
+        int[] bands = permutation(random, 3);
+        int[] order = new int[9];
+        for (int band = 0; band < 3; band++) {
+            int[] within = permutation(random, 3);
+            for (int i = 0; i < 3; i++) order[band * 3 + i] = bands[band] * 3 + within[i];
+        }
+        return order;
+    }
+
+    // --- Measurement ---
+
+    static Result measure(String name, Distribution distribution, long size, Call call, long warmupMs, long measureMs) {
+        long warmupEnd = System.nanoTime() + warmupMs * 1_000_000;
+        do {
+            call.reset();
+            sink += call.run();
+        } while (System.nanoTime() < warmupEnd);
+
+        long ops = 0, totalNs = 0, totalBytes = 0;
+        long measureNs = measureMs * 1_000_000;
+        // Resets are not timed, so also stop on wall time when they dominate (e.g. plusOne on 1e6 digits)
+        long wallEnd = System.nanoTime() + 5 * measureNs;
+        long threadId = Thread.currentThread().getId();
+        while (ops < 3 || (totalNs < measureNs && System.nanoTime() < wallEnd)) {
+            call.reset();
+            long bytesBefore = THREADS != null ? THREADS.getThreadAllocatedBytes(threadId) : 0;
+            long start = System.nanoTime();
+            long result = call.run();
+            long elapsed = System.nanoTime() - start;
+            long bytesAfter = THREADS != null ? THREADS.getThreadAllocatedBytes(threadId) : 0;
+            sink += result;
+            totalNs += elapsed;
+            totalBytes += bytesAfter - bytesBefore;
+            ops++;
+        }
+        double bytesPerOp = THREADS != null ? (double) totalBytes / ops : -1;
+        return new Result(name, distribution, size, (double) totalNs / ops, bytesPerOp, ops, "");
+    }
+
+    public static void main(String[] args) throws IOException {
+        long[] sizes = Arrays.stream(System.getProperty("bench.sizes",
+                "100,1000,10000,100000,1000000,10000000,100000000").split(","))
+                .mapToLong(s -> Long.parseLong(s.trim())).toArray();
+        List<String> only = list(System.getProperty("bench.routines", ""));
+        List<String> distributionNames = list(System.getProperty("bench.distributions", "uniform,skewed,duplicates"));
+        long warmupMs = Long.getLong("bench.warmupMs", 300);
+        long measureMs = Long.getLong("bench.measureMs", 1000);
+        String csv = System.getProperty("bench.csv");
+
+        List<Distribution> distributions = new ArrayList<>();
+        for (String d : distributionNames) distributions.add(Distribution.valueOf(d.toUpperCase()));
+
+        Runtime rt = Runtime.getRuntime();
+        System.out.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                + ", " + rt.availableProcessors() + " cpu(s), max heap " + (rt.maxMemory() >> 20) + " MB"
+                + ", warmup " + warmupMs + " ms, measure " + measureMs + " ms per cell");
+        System.out.println(header());
+
+        List<Result> results = new ArrayList<>();
+        for (Routine routine : routines().values()) {
+            String family = routine.name.split("/")[0]; // "rotateParallel/p4" also matches "rotateParallel"
+            if (!only.isEmpty() && !only.contains(routine.name) && !only.contains(family)) continue;
+            for (Distribution distribution : distributions) {
+                for (long size : sizes) {
+                    Result result = runCell(routine, distribution, size, warmupMs, measureMs);
+                    results.add(result);
+                    System.out.println(format(result));
+                }
+            }
+        }
+        if (only.isEmpty() || only.contains("isValidSudoku")) {
+            for (Distribution distribution : distributions) {
+                char[][][] boards = sudokuBoards(distribution, SEED);
+                int[] next = new int[1];
+                Call call = call(null, () -> ValidSudoku.isValidSudoku(boards[next[0]++ & (SUDOKU_BOARDS - 1)]) ? 1 : 0);
+                Result result = measure("isValidSudoku", distribution, 81, call, warmupMs, measureMs);
+                results.add(result);
+                System.out.println(format(result));
+                call = call(null, () -> ValidSudoku.isValidSudokuBoxed(boards[next[0]++ & (SUDOKU_BOARDS - 1)]) ? 1 : 0);
+                result = measure("isValidSudokuBoxed", distribution, 81, call, warmupMs, measureMs);
+                results.add(result);
+                System.out.println(format(result));
+            }
+        }
+        // Batches are sized in boards, so elem/ns is boards/ns; boards/s is printed as well
+        if (only.isEmpty() || only.contains("isValidSudokuBatch")) {
+            for (Distribution distribution : distributions) {
+                byte[] batch = sudokuBatch(sudokuBoards(distribution, SEED), SUDOKU_BATCH);
+                boolean[] valid = new boolean[SUDOKU_BATCH];
+                List<Result> cells = new ArrayList<>();
+                cells.add(measure("isValidSudokuBatch", distribution, SUDOKU_BATCH,
+                        call(null, () -> ValidSudoku.validate(batch, valid)), warmupMs, measureMs));
+                for (int p : parallelism()) {
+                    ForkJoinPool pool = new ForkJoinPool(p);
+                    cells.add(measure("isValidSudokuBatch/p" + p, distribution, SUDOKU_BATCH,
+                            call(null, () -> ValidSudoku.validateParallel(batch, valid, pool)), warmupMs, measureMs));
+                    pool.shutdown();
+                }
+                for (Result result : cells) {
+                    results.add(result);
+                    System.out.println(format(result) + String.format("   %.0f boards/s", result.size * 1e9 / result.nsPerOp));
+                }
+            }
+        }
+
+        if (csv != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(csv)))) {
+                out.println("routine,distribution,size,ns_per_op,ns_per_element,elements_per_ns,bytes_per_op,ops,note");
+                for (Result r : results) {
+                    out.printf("%s,%s,%d,%.1f,%.3f,%.3f,%.1f,%d,%s%n", r.routine, r.distribution.name().toLowerCase(), r.size,
+                            r.nsPerOp, r.size == 0 ? 0 : r.nsPerOp / r.size, r.nsPerOp == 0 ? 0 : r.size / r.nsPerOp, r.bytesPerOp, r.ops, r.note);
+                }
+            }
+        }
+    }
+
+    private static Result runCell(Routine routine, Distribution distribution, long size, long warmupMs, long measureMs) {
+        Runtime rt = Runtime.getRuntime();
+        long needed = size * (routine.bytesPerElement + (routine.needsOther ? 8 : 4));
+        if (size > Integer.MAX_VALUE - 8 || needed > rt.maxMemory()) {
+            return new Result(routine.name, distribution, size, 0, 0, 0, "skipped (needs ~" + (needed >> 20) + " MB heap)");
+        }
+        try {
+            int[] data = distribution.generate((int) size, SEED);
+            int[] other = routine.needsOther ? distribution.generate((int) size, SEED + 1) : null;
+            Call call = routine.factory.create(data, other);
+            return measure(routine.name, distribution, size, call, warmupMs, measureMs);
+        } catch (OutOfMemoryError e) {
+            return new Result(routine.name, distribution, size, 0, 0, 0, "out of memory");
+        } finally {
+            System.gc(); // don't let this cell's garbage be collected during the next one
+        }
+    }
+
+    private static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        for (String s : value.split(",")) {
+            if (!s.trim().isEmpty()) items.add(s.trim());
+        }
+        return items;
+    }
+
+    private static String header() {
+        return String.format("%-30s %-11s %11s %15s %10s %10s %15s %8s", "routine", "dist", "n", "ns/op", "ns/elem", "elem/ns", "B/op", "ops");
+    }
+
+    private static String format(Result r) {
+        if (!r.note.isEmpty()) {
+            return String.format("%-30s %-11s %11d  %s", r.routine, r.distribution.name().toLowerCase(), r.size, r.note);
+        }
+        return String.format("%-30s %-11s %11d %15.1f %10.3f %10.3f %15s %8d", r.routine, r.distribution.name().toLowerCase(),
+                r.size, r.nsPerOp, r.nsPerOp / r.size, r.size / r.nsPerOp, r.bytesPerOp < 0 ? "n/a" : String.format("%.1f", r.bytesPerOp), r.ops);
+    }
+}
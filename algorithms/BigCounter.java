@@ -0,0 +1,162 @@
+package algorithms;
+import java.util.Arrays;
+
+// BigCounter: non-negative integer of any length for counting, packed nine decimal digits per int
+// limb (base 10^9, least significant limb first): about 3.6 bits per digit instead of PlusOne's
+// 32. Updates happen in place; the limb array doubles when a carry runs off the end, so
+// increment() is amortized O(1) like PlusOne's common case but never reallocates per call.
+//
+// fromDigits/toDigits convert to and from PlusOne's one-digit-per-int form.
+public final class BigCounter {
+
+    static final int BASE = 1_000_000_000;
+    static final int DIGITS_PER_LIMB = 9;
+
+    private int[] limbs;
+    private int size; // limbs in use; the top one is non-zero, zero has none
+
+    public BigCounter() {
+        limbs = new int[4];
+    }
+
+    public BigCounter(long value) {
+        this();
+        add(value);
+    }
+
+    // digits most significant first, each 0-9 (leading zeros allowed)
+    public static BigCounter fromDigits(int[] digits) {
+        BigCounter counter = new BigCounter();
+        counter.limbs = new int[Math.max(4, (digits.length + DIGITS_PER_LIMB - 1) / DIGITS_PER_LIMB)];
+        for (int end = digits.length; end > 0; end -= DIGITS_PER_LIMB) {
+            int limb = 0;
+            for (int i = Math.max(0, end - DIGITS_PER_LIMB); i < end; i++) {
+                int digit = digits[i];
+                if (digit < 0 || digit > 9) {
+                    throw new IllegalArgumentException("Not a decimal digit at " + i + ": " + digit);
+                }
+                limb = limb * 10 + digit;
+            }
+            counter.limbs[counter.size++] = limb;
+        }
+        counter.trim();
+        return counter;
+    }
+
+    // Most significant first, no leading zeros ({0} for zero)
+    public int[] toDigits() {
+        int[] digits = new int[digitCount()];
+        int i = digits.length;
+        for (int l = 0; l < size; l++) {
+            int limb = limbs[l];
+            for (int d = 0; d < DIGITS_PER_LIMB && i > 0; d++) {
+                digits[--i] = limb % 10;
+                limb /= 10;
+            }
+        }
+        return digits;
+    }
+
+    public int digitCount() {
+        if (size == 0) return 1;
+        int top = limbs[size - 1];
+        int digits = 1;
+        while (top >= 10) {
+            top /= 10;
+            digits++;
+        }
+        return (size - 1) * DIGITS_PER_LIMB + digits;
+    }
+
+    public boolean isZero() {
+        return size == 0;
+    }
+
+    public void increment() {
+        if (size > 0 && limbs[0] < BASE - 1) {
+            limbs[0]++; // all but one in 10^9 increments
+            return;
+        }
+        add(1);
+    }
+
+    // Adds k >= 0
+    public void add(long k) {
+        if (k < 0) throw new IllegalArgumentException("Counter cannot go down: " + k);
+        long carry = k;
+        for (int i = 0; carry != 0; i++) {
+            if (i == size) {
+                ensureCapacity(size + 1);
+                limbs[size++] = 0;
+            }
+            long sum = limbs[i] + carry % BASE; // < 2 * BASE: no overflow even for Long.MAX_VALUE
+            limbs[i] = (int) (sum % BASE);
+            carry = carry / BASE + sum / BASE;
+        }
+    }
+
+    public void add(BigCounter other) {
+        int n = other.size;
+        ensureCapacity(Math.max(size, n) + 1);
+        int carry = 0;
+        int i = 0;
+        for (; i < n; i++) {
+            int sum = (i < size ? limbs[i] : 0) + other.limbs[i] + carry; // < 2 * BASE fits an int
+            carry = sum >= BASE ? 1 : 0;
+            limbs[i] = sum - carry * BASE;
+        }
+        size = Math.max(size, n);
+        for (; carry != 0 && i < size; i++) {
+            int sum = limbs[i] + 1;
+            carry = sum == BASE ? 1 : 0;
+            limbs[i] = sum - carry * BASE;
+        }
+        if (carry != 0) {
+            limbs[size++] = 1;
+        }
+    }
+
+    // Makes this equal to other, reusing this counter's array when it is big enough
+    public void set(BigCounter other) {
+        ensureCapacity(other.size);
+        System.arraycopy(other.limbs, 0, limbs, 0, other.size);
+        size = other.size;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > limbs.length) {
+            limbs = Arrays.copyOf(limbs, Math.max(needed, limbs.length * 2));
+        }
+    }
+
+    private void trim() {
+        while (size > 0 && limbs[size - 1] == 0) size--;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BigCounter)) return false;
+        BigCounter other = (BigCounter) o;
+        return size == other.size && Arrays.equals(limbs, 0, size, other.limbs, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; i++) h = 31 * h + limbs[i];
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        if (size == 0) return "0";
+        StringBuilder sb = new StringBuilder(size * DIGITS_PER_LIMB);
+        sb.append(limbs[size - 1]);
+        for (int i = size - 2; i >= 0; i--) {
+            String limb = Integer.toString(limbs[i]);
+            for (int pad = limb.length(); pad < DIGITS_PER_LIMB; pad++) sb.append('0');
+            sb.append(limb);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,151 @@
+package algorithms;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// ContainsDuplicate: true if any value appears at least twice.
+//
+// containsDuplicate(int[]) never modifies its argument. It first checks a short prefix with a hash
+// set (catches most repeats without a full pass), then picks a strategy from the value range:
+//   bitset          - value range small compared to n: one bit per possible value, stops at the first repeat
+//   parallel sort   - very large arrays on multi-core hosts: sorts a copy with Arrays.parallelSort, then scans
+//   hash set        - everything else: primitive open-addressing set, stops at the first repeat
+// For input that never sits in memory at once, feed a Detector chunk by chunk or use the IntStream overload.
+public final class ContainsDuplicate {
+
+    static final long MAX_BITSET_BITS = 1L << 30;    // 128 MB of bits
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 22;
+    static final int PREFIX_CHECK = 1 << 10;
+
+    private ContainsDuplicate() {}
+
+    public static boolean containsDuplicate(int[] nums) {
+        if (nums.length < 2) return false;
+        // Most inputs that have a repeat show it early: check a prefix before paying for a full pass
+        int prefix = Math.min(nums.length, PREFIX_CHECK);
+        IntHashSet seen = new IntHashSet(prefix);
+        for (int i = 0; i < prefix; i++) {
+            if (!seen.add(nums[i])) {
+                return true;
+            }
+        }
+        if (prefix == nums.length) return false;
+
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (int num : nums) {
+            if (num < min) min = num;
+            if (num > max) max = num;
+        }
+        long range = (long) max - min + 1;
+        if (range < nums.length) {
+            return true; // pigeonhole: more values than possible distinct values
+        }
+        // A bit per possible value costs less than the hash set's ~8 bytes per element up to 64 bits/element
+        if (range <= MAX_BITSET_BITS && range <= Math.max(1 << 16, 64L * nums.length)) {
+            return containsDuplicateInRange(nums, min, max);
+        }
+        if (nums.length >= PARALLEL_SORT_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return containsDuplicateParallelSort(nums);
+        }
+        for (int i = prefix; i < nums.length; i++) {
+            if (!seen.add(nums[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every value must lie in [min, max].
+    public static boolean containsDuplicateInRange(int[] nums, int min, int max) {
+        long[] words = new long[(int) ((((long) max - min) >>> 6) + 1)];
+        for (int num : nums) {
+            long offset = (long) num - min;
+            int word = (int) (offset >>> 6);
+            long bit = 1L << offset; // shift uses the low 6 bits only
+            if ((words[word] & bit) != 0) {
+                return true;
+            }
+            words[word] |= bit;
+        }
+        return false;
+    }
+
+    public static boolean containsDuplicateHashSet(int[] nums) {
+        // Start small: an early repeat should not pay for zeroing a table sized for all of nums
+        IntHashSet seen = new IntHashSet(Math.min(nums.length, 1 << 12));
+        for (int num : nums) {
+            if (!seen.add(num)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sorts a copy (nums is left alone); uses every core of the common pool.
+    public static boolean containsDuplicateParallelSort(int[] nums) {
+        int[] sorted = nums.clone();
+        Arrays.parallelSort(sorted);
+        return hasAdjacentEqual(sorted);
+    }
+
+    // Original version: sorts nums in place, then looks for equal neighbours.
+    public static boolean containsDuplicateInPlace(int[] nums) {
+        Arrays.sort(nums);
+        return hasAdjacentEqual(nums);
+    }
+
+    private static boolean hasAdjacentEqual(int[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Consumes the stream only up to the first repeated value. Parallel streams are run sequentially.
+    public static boolean containsDuplicate(IntStream values) {
+        Detector detector = new Detector(1 << 12);
+        return values.sequential().anyMatch(detector::accept);
+    }
+
+    // Incremental duplicate check over input that arrives in pieces (file chunks, network batches).
+    // Memory grows with the number of distinct values seen, not with the input. reset() keeps the
+    // table, so a Detector reused across calls stops allocating once it has grown to size.
+    public static final class Detector {
+        private final IntHashSet seen;
+
+        public Detector(int expectedDistinct) {
+            this.seen = new IntHashSet(expectedDistinct);
+        }
+
+        // True if value was seen before.
+        public boolean accept(int value) {
+            return !seen.add(value);
+        }
+
+        // True as soon as any value in chunk[from, to) was seen before (here or in an earlier chunk).
+        public boolean acceptAll(int[] chunk, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (!seen.add(chunk[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Checks one whole array from scratch.
+        public boolean containsDuplicate(int[] nums) {
+            reset();
+            return acceptAll(nums, 0, nums.length);
+        }
+
+        public int distinctCount() {
+            return seen.size();
+        }
+
+        public void reset() {
+            seen.clear();
+        }
+    }
+}
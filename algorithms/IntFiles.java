@@ -0,0 +1,147 @@
+package algorithms;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// IntFiles: files of raw 32-bit ints (big-endian, no header), read and written in fixed-size
+// chunks so memory stays bounded however big the file is.
+public final class IntFiles {
+
+    public static final int DEFAULT_CHUNK_INTS = 16 * 1024; // 64 KB buffers
+
+    private IntFiles() {}
+
+    public static Reader reader(Path file) throws IOException {
+        return new Reader(file, DEFAULT_CHUNK_INTS);
+    }
+
+    public static Writer writer(Path file) throws IOException {
+        return new Writer(file, DEFAULT_CHUNK_INTS);
+    }
+
+    // Number of ints in file
+    public static long count(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.size() / Integer.BYTES;
+        }
+    }
+
+    public static void write(Path file, int[] values) throws IOException {
+        try (Writer out = writer(file)) {
+            out.write(values, 0, values.length);
+        }
+    }
+
+    public static int[] readAll(Path file) throws IOException {
+        long count = count(file);
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IOException(file + " holds " + count + " ints, too many for one array");
+        }
+        int[] values = new int[(int) count];
+        try (Reader in = reader(file)) {
+            int n = 0, read;
+            while (n < values.length && (read = in.read(values, n, values.length - n)) > 0) {
+                n += read;
+            }
+        }
+        return values;
+    }
+
+    public static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private boolean eof;
+
+        public Reader(Path file, int chunkInts) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocate(Math.max(1, chunkInts) * Integer.BYTES);
+            buffer.flip(); // start empty
+        }
+
+        // Fills dst from the start; returns how many ints were read, or -1 at end of file.
+        public int read(int[] dst) throws IOException {
+            return read(dst, 0, dst.length);
+        }
+
+        public int read(int[] dst, int offset, int length) throws IOException {
+            int n = 0;
+            while (n < length) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    if (eof || !fill()) break;
+                    continue;
+                }
+                int count = Math.min(length - n, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(dst, offset + n, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                n += count;
+            }
+            return n == 0 && length > 0 ? -1 : n;
+        }
+
+        // false once the file is exhausted
+        private boolean fill() throws IOException {
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                eof = true;
+                if (buffer.hasRemaining()) {
+                    throw new IOException("File length is not a multiple of 4 bytes");
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        public Writer(Path file, int chunkInts) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocate(Math.max(1, chunkInts) * Integer.BYTES);
+        }
+
+        public void write(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) flush();
+            buffer.putInt(value);
+        }
+
+        public void write(int[] values, int from, int to) throws IOException {
+            int i = from;
+            while (i < to) {
+                if (buffer.remaining() < Integer.BYTES) flush();
+                int count = Math.min(to - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, i, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                i += count;
+            }
+        }
+
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package algorithms;
+import java.util.Arrays;
+
+// IntHashSet: set of primitive ints with open addressing (linear probing), same layout rules as
+// IntIntMap. clear() keeps the table, so a set can be reused without allocating again.
+public final class IntHashSet {
+
+    private static final int FREE_KEY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int mask;
+    private int size;       // keys in the table (not counting 0)
+    private int resizeAt;
+    private boolean hasFreeKey;
+
+    public IntHashSet(int expectedSize) {
+        allocate(IntIntMap.tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(int key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        return keys[indexOf(key)] == key;
+    }
+
+    // Adds key; false if it was already there.
+    public boolean add(int key) {
+        if (key == FREE_KEY) {
+            if (hasFreeKey) return false;
+            hasFreeKey = true;
+            return true;
+        }
+        int i = indexOf(key);
+        if (keys[i] == key) return false;
+        keys[i] = key;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public void clear() {
+        if (size > 0) Arrays.fill(keys, FREE_KEY);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    private int indexOf(int key) {
+        int i = IntIntMap.mix(key) & mask;
+        int k;
+        while ((k = keys[i]) != FREE_KEY && k != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        allocate(capacity);
+        for (int key : oldKeys) {
+            if (key != FREE_KEY) {
+                keys[indexOf(key)] = key;
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+        size = 0;
+    }
+}
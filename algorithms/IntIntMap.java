@@ -0,0 +1,137 @@
+package algorithms;
+import java.util.Arrays;
+
+// IntIntMap: int -> int hash map with open addressing (linear probing) over two parallel int
+// arrays, so neither keys nor values are boxed. Sized up front from the expected number of keys,
+// it allocates nothing per put; it only reallocates when it grows past that.
+//
+// Key 0 marks an empty slot, so the entry for key 0 itself is kept in a separate field.
+public final class IntIntMap {
+
+    private static final int FREE_KEY = 0;
+    private static final float LOAD_FACTOR = 0.5f; // linear probing degrades quickly above this
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;       // entries in the arrays (not counting key 0)
+    private int resizeAt;
+    private boolean hasFreeKey;
+    private int freeValue;
+
+    public IntIntMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        return keys[indexOf(key)] == key;
+    }
+
+    // The value for key, or missing if there is none.
+    public int get(int key, int missing) {
+        if (key == FREE_KEY) return hasFreeKey ? freeValue : missing;
+        int i = indexOf(key);
+        return keys[i] == key ? values[i] : missing;
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE_KEY) {
+            hasFreeKey = true;
+            freeValue = value;
+            return;
+        }
+        int i = indexOf(key);
+        if (keys[i] == key) {
+            values[i] = value;
+            return;
+        }
+        insertAt(i, key, value);
+    }
+
+    // Adds delta to the value for key (absent counts as 0) and returns the new value.
+    public int addTo(int key, int delta) {
+        if (key == FREE_KEY) {
+            freeValue = hasFreeKey ? freeValue + delta : delta;
+            hasFreeKey = true;
+            return freeValue;
+        }
+        int i = indexOf(key);
+        if (keys[i] == key) {
+            return values[i] += delta;
+        }
+        insertAt(i, key, delta);
+        return delta;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    // Slot holding key, or the empty slot where it would go
+    private int indexOf(int key) {
+        int i = mix(key) & mask;
+        int k;
+        while ((k = keys[i]) != FREE_KEY && k != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void insertAt(int i, int key, int value) {
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            int key = oldKeys[j];
+            if (key != FREE_KEY) {
+                int i = indexOf(key);
+                keys[i] = key;
+                values[i] = oldValues[j];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+        size = 0;
+    }
+
+    // Power of two with room for expectedSize keys below the load factor
+    static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(2, expectedSize) / (double) LOAD_FACTOR) + 1;
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("Too many keys for an IntIntMap: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+
+    // Fibonacci hashing: spreads sequential and clustered ints across the table
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
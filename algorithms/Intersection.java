@@ -0,0 +1,200 @@
+package algorithms;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Intersection: values common to both arrays, each repeated as often as it appears in both
+// (multiset intersection).
+//
+// intersect(int[], int[]) picks a strategy; the result order depends on it:
+//   sorted   - both inputs ascending: merge, or galloping (exponential search in the big side) when
+//              one side is GALLOP_RATIO times longer; result ascending
+//   counting - the smaller side's values span a small range: a count per value in that range,
+//              probed by the larger side; result in the larger side's order
+//   hash     - otherwise: primitive counts of the smaller side, probed by the larger side; result
+//              in the larger side's order
+// intersectHashed keeps the old contract (counts of nums1, result in nums2 order). A file too big
+// for memory is intersected against an in-memory array with intersect(int[], Path).
+public final class Intersection {
+
+    static final int GALLOP_RATIO = 32;
+    static final int MAX_COUNTING_RANGE = 1 << 24; // 64 MB of counts at most
+
+    private Intersection() {}
+
+    public static int[] intersect(int[] nums1, int[] nums2) {
+        int[] small = nums1.length <= nums2.length ? nums1 : nums2;
+        int[] large = small == nums1 ? nums2 : nums1;
+        if (small.length == 0) return new int[0];
+        if (isSorted(small) && isSorted(large)) {
+            return intersectSorted(small, large);
+        }
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (int num : small) {
+            if (num < min) min = num;
+            if (num > max) max = num;
+        }
+        // A count per value costs less than the hash table's ~16 bytes per element up to 4 slots/element
+        long range = (long) max - min + 1;
+        if (range <= MAX_COUNTING_RANGE && range <= Math.max(1 << 12, 4L * small.length)) {
+            return intersectInRange(small, large, min, max);
+        }
+        return intersectHashed(small, large);
+    }
+
+    // Counts of nums1, probed by nums2: result in nums2 order.
+    public static int[] intersectHashed(int[] nums1, int[] nums2) {
+        IntIntMap counts = new IntIntMap(nums1.length);
+        for (int num : nums1) {
+            counts.addTo(num, 1);
+        }
+
+        int[] intersection = new int[Math.min(nums1.length, nums2.length)];
+        int size = 0;
+        for (int num : nums2) {
+            int count = counts.get(num, 0);
+            if (count > 0) {
+                intersection[size++] = num;
+                counts.put(num, count - 1);
+            }
+        }
+        return trimmed(intersection, size);
+    }
+
+    // Every value of counted must lie in [min, max]; result in probe order.
+    public static int[] intersectInRange(int[] counted, int[] probe, int min, int max) {
+        int[] counts = new int[(int) ((long) max - min + 1)];
+        for (int num : counted) {
+            counts[num - min]++;
+        }
+        int[] intersection = new int[Math.min(counted.length, probe.length)];
+        int size = 0;
+        for (int num : probe) {
+            long offset = (long) num - min;
+            if (offset >= 0 && offset < counts.length && counts[(int) offset] > 0) {
+                counts[(int) offset]--;
+                intersection[size++] = num;
+            }
+        }
+        return trimmed(intersection, size);
+    }
+
+    // Both inputs ascending; result ascending.
+    public static int[] intersectSorted(int[] nums1, int[] nums2) {
+        int[] small = nums1.length <= nums2.length ? nums1 : nums2;
+        int[] large = small == nums1 ? nums2 : nums1;
+        int[] intersection = new int[small.length];
+        int size = 0;
+        if ((long) small.length * GALLOP_RATIO <= large.length) {
+            int j = 0;
+            for (int i = 0; i < small.length && j < large.length; i++) {
+                j = lowerBound(large, j, small[i]);
+                if (j < large.length && large[j] == small[i]) {
+                    intersection[size++] = small[i];
+                    j++;
+                }
+            }
+        } else {
+            int i = 0, j = 0;
+            while (i < small.length && j < large.length) {
+                int a = small[i], b = large[j];
+                if (a < b) {
+                    i++;
+                } else if (a > b) {
+                    j++;
+                } else {
+                    intersection[size++] = a;
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return trimmed(intersection, size);
+    }
+
+    // First index >= from whose value is >= key: gallops 1, 2, 4, ... ahead, then binary searches
+    // the last step, so a skip of d elements costs O(log d).
+    private static int lowerBound(int[] sorted, int from, int key) {
+        int n = sorted.length;
+        if (from >= n || sorted[from] >= key) return from;
+        int lo = from, step = 1; // sorted[lo] < key
+        while (lo + step < n && sorted[lo + step] < key) {
+            lo += step;
+            step <<= 1;
+        }
+        int hi = Math.min(n, lo + step); // sorted[hi] >= key, or hi == n
+        while (lo + 1 < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+
+    // --- Files (see IntFiles for the format) ---
+
+    // Intersects small with the ints of a file, streamed in chunks: memory holds small's counts and
+    // one chunk, however big the file. Result in file order. Stops reading once every value of
+    // small has been matched.
+    public static int[] intersect(int[] small, Path large) throws IOException {
+        IntIntMap counts = new IntIntMap(small.length);
+        for (int num : small) {
+            counts.addTo(num, 1);
+        }
+        int[] intersection = new int[small.length];
+        int size = 0;
+        int[] chunk = new int[IntFiles.DEFAULT_CHUNK_INTS];
+        try (IntFiles.Reader reader = IntFiles.reader(large)) {
+            int n;
+            while (size < small.length && (n = reader.read(chunk)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    int count = counts.get(chunk[i], 0);
+                    if (count > 0) {
+                        intersection[size++] = chunk[i];
+                        counts.put(chunk[i], count - 1);
+                    }
+                }
+            }
+        }
+        return trimmed(intersection, size);
+    }
+
+    private static boolean isSorted(int[] nums) {
+        for (int i = 1; i < nums.length; i++) {
+            if (nums[i] < nums[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] trimmed(int[] values, int size) {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    // Original HashMap<Integer, Integer> version, kept as the benchmark reference.
+    public static int[] intersectBoxed(int[] nums1, int[] nums2) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int num : nums1) {
+            counts.put(num, counts.getOrDefault(num, 0) + 1);
+        }
+
+        List<Integer> intersection = new ArrayList<>();
+        for (int num : nums2) {
+            if (counts.containsKey(num) && counts.get(num) > 0) {
+                intersection.add(num);
+                counts.put(num, counts.get(num) - 1);
+            }
+        }
+
+        int[] result = new int[intersection.size()];
+        for (int i = 0; i < intersection.size(); i++) {
+            result[i] = intersection.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package algorithms;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// MaxProfit: best total profit from buying and selling any number of times (at most one share
+// held at once), i.e. the sum of every price rise between consecutive days.
+public final class MaxProfit {
+
+    private MaxProfit() {}
+
+    public static int maxProfit(int[] prices) {
+        return risesBetween(prices, 1, prices.length);
+    }
+
+    // Each SIMD lane adds its day's rise under a mask: no branch, so random prices cost no more than
+    // trending ones. Scalar when !Vectorized.AVAILABLE.
+    public static int maxProfitVector(int[] prices) {
+        return Vectorized.AVAILABLE ? VectorKernels.deltaSum(prices) : maxProfit(prices);
+    }
+
+    // A sum of independent per-day rises: each half is summed separately (int overflow wraps the
+    // same way in any order, so the result matches maxProfit exactly).
+    public static int maxProfitParallel(int[] prices) {
+        return maxProfitParallel(prices, ForkJoinPool.commonPool());
+    }
+
+    public static int maxProfitParallel(int[] prices, ForkJoinPool pool) {
+        if (prices.length <= Parallel.THRESHOLD) return maxProfit(prices);
+        return pool.invoke(new RiseTask(prices, 1, prices.length));
+    }
+
+    // Sum of positive prices[i] - prices[i - 1] for i in [from, to)
+    static int risesBetween(int[] prices, int from, int to) {
+        int maxProfit = 0;
+        for (int i = from; i < to; i++) {
+            if (prices[i] > prices[i - 1]) {
+                maxProfit += prices[i] - prices[i - 1];
+            }
+        }
+        return maxProfit;
+    }
+
+    private static final class RiseTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] prices;
+        private final int from, to;
+
+        RiseTask(int[] prices, int from, int to) {
+            this.prices = prices;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= Parallel.THRESHOLD) {
+                return risesBetween(prices, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            RiseTask left = new RiseTask(prices, from, mid);
+            left.fork();
+            int right = new RiseTask(prices, mid, to).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package algorithms;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// MoveZeroes: moves every 0 to the end of nums, keeping the order of the other values.
+public final class MoveZeroes {
+
+    private MoveZeroes() {}
+
+    public static void moveZeroes(int[] nums) {
+        int kept = compact(nums, 0, nums.length);
+        Arrays.fill(nums, kept, nums.length, 0);
+    }
+
+    // SIMD version (see VectorKernels.moveZeroes); scalar when !Vectorized.AVAILABLE. Pays off
+    // when zeros are rare or clustered, since mixed vectors are compacted lane by lane.
+    public static void moveZeroesVector(int[] nums) {
+        if (Vectorized.AVAILABLE) {
+            VectorKernels.moveZeroes(nums);
+        } else {
+            moveZeroes(nums);
+        }
+    }
+
+    // Fork-join version, same result:
+    //   1. every block of Parallel.THRESHOLD elements compacts its non-zeros to its own front (parallel)
+    //   2. the compacted runs are slid down to their final offsets in block order (sequential
+    //      memmoves: a run may land on an earlier block's data, so order matters)
+    //   3. the tail is zeroed (parallel)
+    // Step 2 copies only the non-zero values once, but it is the serial part that limits scaling.
+    public static void moveZeroesParallel(int[] nums) {
+        moveZeroesParallel(nums, ForkJoinPool.commonPool());
+    }
+
+    public static void moveZeroesParallel(int[] nums, ForkJoinPool pool) {
+        int n = nums.length;
+        if (n <= Parallel.THRESHOLD) {
+            moveZeroes(nums);
+            return;
+        }
+        int block = Parallel.THRESHOLD;
+        int blocks = (int) ((n + (long) block - 1) / block);
+        int[] kept = new int[blocks];
+        Parallel.forEachRange(pool, 0, blocks, 1, (b0, b1) -> {
+            for (int b = b0; b < b1; b++) {
+                int from = b * block;
+                kept[b] = compact(nums, from, Math.min(n, from + block));
+            }
+        });
+
+        int write = kept[0];
+        for (int b = 1; b < blocks; b++) {
+            System.arraycopy(nums, b * block, nums, write, kept[b]);
+            write += kept[b];
+        }
+
+        int zerosFrom = write;
+        Parallel.forEachRange(pool, zerosFrom, n, (from, to) -> Arrays.fill(nums, from, to, 0));
+    }
+
+    // Moves the non-zeros of [from, to) to its front, in order; returns how many there are.
+    private static int compact(int[] nums, int from, int to) {
+        int nonZeroIndex = from;
+        for (int i = from; i < to; i++) {
+            if (nums[i] != 0) {
+                nums[nonZeroIndex] = nums[i];
+                nonZeroIndex++;
+            }
+        }
+        return nonZeroIndex - from;
+    }
+}
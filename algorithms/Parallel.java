@@ -0,0 +1,55 @@
+package algorithms;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Parallel: shared pieces of the fork-join kernels (the *Parallel methods of each routine).
+// Ranges are split in half until they hold at most THRESHOLD elements; inputs no bigger than
+// THRESHOLD skip the pool and run the sequential code.
+final class Parallel {
+
+    // Elements per leaf task: ~256 KB of ints, large enough to hide fork/join overhead
+    static final int THRESHOLD = Math.max(1024, Integer.getInteger("algorithms.parallelThreshold", 1 << 16));
+
+    @FunctionalInterface
+    interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private Parallel() {}
+
+    // Runs body over [from, to) in leaf-sized pieces on pool
+    static void forEachRange(ForkJoinPool pool, int from, int to, RangeBody body) {
+        forEachRange(pool, from, to, THRESHOLD, body);
+    }
+
+    // Same, with at most grain indices per leaf (e.g. 1 when each index is a whole block)
+    static void forEachRange(ForkJoinPool pool, int from, int to, int grain, RangeBody body) {
+        if (from < to) {
+            pool.invoke(new RangeAction(from, to, Math.max(1, grain), body));
+        }
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, grain;
+        private final RangeBody body;
+
+        RangeAction(int from, int to, int grain, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, mid, grain, body), new RangeAction(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package algorithms;
+
+// PlusOne: adds one to a number stored as decimal digits, most significant first.
+// Updates digits in place unless the number grows a digit (e.g. 999 -> 1000). Counters that
+// live long or grow large: see BigCounter, nine digits per int.
+public final class PlusOne {
+
+    private PlusOne() {}
+
+    public static int[] plusOne(int[] digits) {
+        int n = digits.length;
+        for (int i = n - 1; i >= 0; i--) {
+            if (digits[i] < 9) {
+                digits[i]++;
+                return digits;
+            }
+            digits[i] = 0;
+        }
+
+        int[] newDigits = new int[n + 1];
+        newDigits[0] = 1;
+        return newDigits;
+    }
+}
@@ -0,0 +1,111 @@
+package algorithms;
+import java.util.Arrays;
+
+// ProfitTracker: MaxProfit over a live feed. Ticks arrive one at a time or in primitive batches;
+// the state is the last price and the running profit, so the feed never has to be kept.
+// Profit is a long, exact for any feed (maxProfit's int wraps on long arrays of big rises).
+//
+// Many symbols at once: see Symbols, the same state as one array per field.
+public final class ProfitTracker {
+
+    private int last;
+    private boolean started;
+    private long profit;
+
+    public void accept(int price) {
+        if (started) {
+            profit += Math.max(0L, (long) price - last);
+        }
+        last = price;
+        started = true;
+    }
+
+    public void acceptAll(int[] prices, int from, int to) {
+        if (from >= to) return;
+        if (!started) {
+            last = prices[from++];
+            started = true;
+        }
+        long sum = 0;
+        int previous = last;
+        for (int i = from; i < to; i++) {
+            int price = prices[i];
+            sum += Math.max(0L, (long) price - previous);
+            previous = price;
+        }
+        profit += sum;
+        last = previous;
+    }
+
+    public long profit() {
+        return profit;
+    }
+
+    public void reset() {
+        started = false;
+        profit = 0;
+    }
+
+    // One tracker per symbol id (0 .. capacity, growing on demand), stored struct-of-arrays: a
+    // tick touches one int and one long, and a pass over every symbol's profit reads one array.
+    public static final class Symbols {
+        private int[] last;
+        private long[] profit;
+        private long[] started; // bit per symbol
+
+        public Symbols(int expectedSymbols) {
+            int capacity = Math.max(64, expectedSymbols);
+            last = new int[capacity];
+            profit = new long[capacity];
+            started = new long[(capacity + 63) >>> 6];
+        }
+
+        public void accept(int symbol, int price) {
+            if (symbol < 0 || symbol >= last.length) grow(symbol);
+            long bit = 1L << symbol;
+            int word = symbol >>> 6;
+            if ((started[word] & bit) != 0) {
+                profit[symbol] += Math.max(0L, (long) price - last[symbol]);
+            } else {
+                started[word] |= bit;
+            }
+            last[symbol] = price;
+        }
+
+        // Ticks i in [from, to): symbols[i] traded at prices[i]
+        public void acceptAll(int[] symbols, int[] prices, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(symbols[i], prices[i]);
+            }
+        }
+
+        // 0 for a symbol that has not traded
+        public long profit(int symbol) {
+            return symbol < profit.length ? profit[symbol] : 0;
+        }
+
+        public long totalProfit() {
+            long total = 0;
+            for (long p : profit) total += p;
+            return total;
+        }
+
+        // Highest symbol id the arrays can hold without growing, plus one
+        public int capacity() {
+            return last.length;
+        }
+
+        public void reset() {
+            Arrays.fill(profit, 0);
+            Arrays.fill(started, 0);
+        }
+
+        private void grow(int symbol) {
+            if (symbol < 0) throw new IllegalArgumentException("Negative symbol id " + symbol);
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(symbol + 1L, last.length * 2L));
+            last = Arrays.copyOf(last, capacity);
+            profit = Arrays.copyOf(profit, capacity);
+            started = Arrays.copyOf(started, (capacity + 63) >>> 6);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package algorithms;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+// RemoveDuplicates: moves the distinct values of nums to the front, in first-seen order, and
+// returns how many there are.
+//
+// Sorted input is detected with one cheap pass and handled with two pointers (no allocation).
+// Unsorted input goes through a primitive IntHashSet: one table per call, or none when the caller
+// passes a reusable scratch set. Files too big for memory use removeDuplicates(Path, Path, int).
+public final class RemoveDuplicates {
+
+    private static final int MAX_PARTITIONS = 1024;
+    private static final int MERGE_CHUNK_INTS = 2 * 1024; // per run file while merging
+
+    private RemoveDuplicates() {}
+
+    public static int removeDuplicates(int[] nums) {
+        if (isSorted(nums)) {
+            return removeDuplicatesSorted(nums);
+        }
+        return removeDuplicates(nums, new IntHashSet(nums.length));
+    }
+
+    // Unsorted path with a caller-owned set (cleared first), for zero allocation across calls.
+    public static int removeDuplicates(int[] nums, IntHashSet scratch) {
+        scratch.clear();
+        int write = 0;
+        for (int num : nums) {
+            if (scratch.add(num)) {
+                nums[write++] = num;
+            }
+        }
+        return write;
+    }
+
+    // Equal values in nums must be adjacent, as they are in sorted input.
+    public static int removeDuplicatesSorted(int[] nums) {
+        if (nums.length == 0) return 0;
+        int write = 1;
+        int previous = nums[0]; // equal values are adjacent, so the last value read is the last one kept
+        for (int read = 1; read < nums.length; read++) {
+            // Always store, only advance past a new value: no branch to mispredict on random runs
+            int value = nums[read];
+            nums[write] = value;
+            write += value != previous ? 1 : 0;
+            previous = value;
+        }
+        return write;
+    }
+
+    private static boolean isSorted(int[] nums) {
+        for (int i = 1; i < nums.length; i++) {
+            if (nums[i] < nums[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Original LinkedHashMap version, kept as the benchmark reference.
+    public static int removeDuplicatesBoxed(int[] nums) {
+        if (nums.length == 0) return 0;
+
+        Map<Integer, Boolean> seen = new LinkedHashMap<>();
+        for (int num : nums) {
+            seen.put(num, true);
+        }
+
+        int i = 0;
+        for (int key : seen.keySet()) {
+            nums[i++] = key;
+        }
+        return i;
+    }
+
+    // --- Files (see IntFiles for the format) ---
+
+    // Writes each distinct int of in to out once, in first-seen order, holding at most about
+    // maxDistinctInMemory values in memory. Returns the number of distinct values.
+    //
+    // One streaming pass when the distinct values fit. Otherwise the input is split by hash into
+    // partition files of (position, value), each partition is deduplicated on its own (its records
+    // are already in position order), and the partitions are merged back by position.
+    public static long removeDuplicates(Path in, Path out, int maxDistinctInMemory) throws IOException {
+        int limit = Math.max(1, maxDistinctInMemory);
+        IntHashSet seen = new IntHashSet(Math.min(limit, 1 << 16));
+        int[] chunk = new int[IntFiles.DEFAULT_CHUNK_INTS];
+        long written = 0;
+        try (IntFiles.Reader reader = IntFiles.reader(in); IntFiles.Writer writer = IntFiles.writer(out)) {
+            int n;
+            read:
+            while ((n = reader.read(chunk)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    if (seen.add(chunk[i])) {
+                        if (seen.size() > limit) {
+                            written = -1;
+                            break read;
+                        }
+                        writer.write(chunk[i]);
+                        written++;
+                    }
+                }
+            }
+        }
+        if (written < 0) {
+            return removeDuplicatesPartitioned(in, out, limit);
+        }
+        return written;
+    }
+
+    private static long removeDuplicatesPartitioned(Path in, Path out, int limit) throws IOException {
+        long total = IntFiles.count(in);
+        int partitions = (int) Math.min(MAX_PARTITIONS, Math.max(2, (total + limit - 1) / limit));
+        Path dir = Files.createTempDirectory(out.toAbsolutePath().getParent(), "dedup");
+        try {
+            // Split: record = position (two ints) + value
+            IntFiles.Writer[] parts = new IntFiles.Writer[partitions];
+            try {
+                for (int p = 0; p < partitions; p++) {
+                    parts[p] = new IntFiles.Writer(dir.resolve("part" + p), MERGE_CHUNK_INTS);
+                }
+                int[] chunk = new int[IntFiles.DEFAULT_CHUNK_INTS];
+                long position = 0;
+                try (IntFiles.Reader reader = IntFiles.reader(in)) {
+                    int n;
+                    while ((n = reader.read(chunk)) > 0) {
+                        for (int i = 0; i < n; i++, position++) {
+                            IntFiles.Writer part = parts[Math.floorMod(IntIntMap.mix(chunk[i]), partitions)];
+                            part.write((int) (position >>> 32));
+                            part.write((int) position);
+                            part.write(chunk[i]);
+                        }
+                    }
+                }
+            } finally {
+                closeAll(parts);
+            }
+
+            // Dedup each partition in memory; survivors stay in position order
+            IntHashSet seen = new IntHashSet(limit);
+            int[] record = new int[3 * 1024];
+            for (int p = 0; p < partitions; p++) {
+                seen.clear();
+                Path part = dir.resolve("part" + p);
+                try (IntFiles.Reader reader = new IntFiles.Reader(part, record.length);
+                     IntFiles.Writer run = new IntFiles.Writer(dir.resolve("run" + p), MERGE_CHUNK_INTS)) {
+                    int n;
+                    while ((n = reader.read(record)) > 0) {
+                        for (int i = 0; i + 2 < n; i += 3) {
+                            if (seen.add(record[i + 2])) {
+                                run.write(record, i, i + 3);
+                            }
+                        }
+                    }
+                }
+                Files.delete(part);
+            }
+
+            return mergeRuns(dir, partitions, out);
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    // Next unread record of one run file
+    private static final class RunCursor {
+        final IntFiles.Reader reader;
+        final int[] record = new int[3];
+        long position;
+
+        RunCursor(IntFiles.Reader reader) {
+            this.reader = reader;
+        }
+
+        boolean advance() throws IOException {
+            if (reader.read(record) < 3) return false;
+            position = ((long) record[0] << 32) | (record[1] & 0xFFFFFFFFL);
+            return true;
+        }
+    }
+
+    private static long mergeRuns(Path dir, int partitions, Path out) throws IOException {
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(partitions, (a, b) -> Long.compare(a.position, b.position));
+        RunCursor[] cursors = new RunCursor[partitions];
+        long written = 0;
+        try (IntFiles.Writer writer = IntFiles.writer(out)) {
+            for (int p = 0; p < partitions; p++) {
+                cursors[p] = new RunCursor(new IntFiles.Reader(dir.resolve("run" + p), MERGE_CHUNK_INTS));
+                if (cursors[p].advance()) queue.add(cursors[p]);
+            }
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                writer.write(cursor.record[2]);
+                written++;
+                if (cursor.advance()) queue.add(cursor);
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                if (cursor != null) cursor.reader.close();
+            }
+        }
+        return written;
+    }
+
+    private static void closeAll(IntFiles.Writer[] writers) throws IOException {
+        IOException first = null;
+        for (IntFiles.Writer writer : writers) {
+            if (writer == null) continue;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (first == null) first = e;
+            }
+        }
+        if (first != null) throw first;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+}
@@ -0,0 +1,62 @@
+package algorithms;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// SingleNumber: the one value that appears an odd number of times when every other value
+// appears in pairs (XOR of everything).
+public final class SingleNumber {
+
+    private SingleNumber() {}
+
+    public static int singleNumber(int[] nums) {
+        return xor(nums, 0, nums.length);
+    }
+
+    // Lane-wise XOR over SIMD vectors, folded at the end; scalar when !Vectorized.AVAILABLE.
+    public static int singleNumberVector(int[] nums) {
+        return Vectorized.AVAILABLE ? VectorKernels.xor(nums) : singleNumber(nums);
+    }
+
+    // XOR is associative, so halves are reduced independently and combined.
+    public static int singleNumberParallel(int[] nums) {
+        return singleNumberParallel(nums, ForkJoinPool.commonPool());
+    }
+
+    public static int singleNumberParallel(int[] nums, ForkJoinPool pool) {
+        if (nums.length <= Parallel.THRESHOLD) return singleNumber(nums);
+        return pool.invoke(new XorTask(nums, 0, nums.length));
+    }
+
+    static int xor(int[] nums, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            result ^= nums[i];
+        }
+        return result;
+    }
+
+    private static final class XorTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nums;
+        private final int from, to;
+
+        XorTask(int[] nums, int from, int to) {
+            this.nums = nums;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= Parallel.THRESHOLD) {
+                return xor(nums, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            XorTask left = new XorTask(nums, from, mid);
+            left.fork();
+            int right = new XorTask(nums, mid, to).compute();
+            return left.join() ^ right;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package algorithms;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// SortColors: sorts an array of 0s, 1s and 2s in one pass (Dutch national flag partition).
+public final class SortColors {
+
+    private SortColors() {}
+
+    public static void sortColors(int[] nums) {
+        int low = 0, mid = 0, high = nums.length - 1;
+        while (mid <= high) {
+            if (nums[mid] == 0) {
+                int temp = nums[low];
+                nums[low] = nums[mid];
+                nums[mid] = temp;
+                low++;
+                mid++;
+            } else if (nums[mid] == 1) {
+                mid++;
+            } else {
+                int temp = nums[mid];
+                nums[mid] = nums[high];
+                nums[high] = temp;
+                high--;
+            }
+        }
+    }
+
+    // Fork-join version: count the 0s and 1s in parallel, then rewrite the three ranges in
+    // parallel. Equal colors are interchangeable, so this is the same result as the partition;
+    // every value must be 0, 1 or 2.
+    public static void sortColorsParallel(int[] nums) {
+        sortColorsParallel(nums, ForkJoinPool.commonPool());
+    }
+
+    public static void sortColorsParallel(int[] nums, ForkJoinPool pool) {
+        if (nums.length <= Parallel.THRESHOLD) {
+            sortColors(nums);
+            return;
+        }
+        int[] counts = pool.invoke(new CountTask(nums, 0, nums.length));
+        int ones = counts[0], twos = counts[0] + counts[1];
+        Parallel.forEachRange(pool, 0, nums.length, (from, to) -> {
+            Arrays.fill(nums, from, Math.max(from, Math.min(to, ones)), 0);
+            Arrays.fill(nums, Math.max(from, Math.min(to, ones)), Math.max(from, Math.min(to, twos)), 1);
+            Arrays.fill(nums, Math.max(from, Math.min(to, twos)), to, 2);
+        });
+    }
+
+    // {zeros, ones} in [from, to)
+    private static final class CountTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nums;
+        private final int from, to;
+
+        CountTask(int[] nums, int from, int to) {
+            this.nums = nums;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= Parallel.THRESHOLD) {
+                // For 0/1/2, bit 0 marks a 1 and bit 1 marks a 2: counting is plain adds, no branches
+                int ones = 0, twos = 0;
+                for (int i = from; i < to; i++) {
+                    int value = nums[i];
+                    ones += value & 1;
+                    twos += value >>> 1;
+                }
+                return new int[] { to - from - ones - twos, ones };
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(nums, from, mid);
+            left.fork();
+            int[] right = new CountTask(nums, mid, to).compute();
+            int[] counts = left.join();
+            counts[0] += right[0];
+            counts[1] += right[1];
+            return counts;
+        }
+    }
+}
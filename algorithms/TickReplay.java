@@ -0,0 +1,125 @@
+package algorithms;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// TickReplay: feeds a binary tick file into a ProfitTracker.Symbols. The file is memory-mapped a
+// segment at a time, so a whole day of ticks replays without being read into the heap.
+//
+// Tick file: fixed records of TICK_BYTES, big-endian, in time order, no header:
+//   long time (nanoseconds, any epoch)   int symbol (0-based id)   int price
+//
+// speed is replay time relative to the feed: 1 is real time, 60 a minute of ticks per second,
+// Double.POSITIVE_INFINITY as fast as possible.
+//
+//   java -cp out algorithms.TickReplay generate ticks.bin 5000 2000   (symbols, ticks per symbol)
+//   java -cp out algorithms.TickReplay replay ticks.bin [speed]
+public final class TickReplay {
+
+    public static final int TICK_BYTES = 16;
+
+    private static final long SEGMENT_BYTES = (1L << 26) / TICK_BYTES * TICK_BYTES; // 64 MB of ticks
+    private static final int PACE_EVERY = 256; // ticks between clock checks when paced
+
+    private TickReplay() {}
+
+    // What one replay did
+    public static final class Stats {
+        public final long ticks;
+        public final long feedNanos;    // time from the first tick to the last, by the feed's clock
+        public final long elapsedNanos; // wall time spent replaying
+
+        Stats(long ticks, long feedNanos, long elapsedNanos) {
+            this.ticks = ticks;
+            this.feedNanos = feedNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double ticksPerSecond() {
+            return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+        }
+
+        // How many times faster than real time the replay ran
+        public double speedup() {
+            return elapsedNanos == 0 ? 0 : (double) feedNanos / elapsedNanos;
+        }
+    }
+
+    public static Stats replay(Path file, ProfitTracker.Symbols tracker, double speed) throws IOException {
+        if (!(speed > 0)) throw new IllegalArgumentException("speed must be positive: " + speed);
+        boolean paced = speed != Double.POSITIVE_INFINITY;
+        long start = System.nanoTime();
+        long firstTime = 0, lastTime = 0, ticks = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % TICK_BYTES != 0) {
+                throw new IOException(file + " is " + size + " bytes, not a multiple of " + TICK_BYTES);
+            }
+            for (long position = 0; position < size; position += SEGMENT_BYTES) {
+                int length = (int) Math.min(SEGMENT_BYTES, size - position);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int offset = 0; offset < length; offset += TICK_BYTES) {
+                    long time = segment.getLong(offset);
+                    if (ticks == 0) firstTime = time;
+                    lastTime = time;
+                    tracker.accept(segment.getInt(offset + 8), segment.getInt(offset + 12));
+                    if (++ticks % PACE_EVERY == 0 && paced) {
+                        waitUntil(start + (long) ((time - firstTime) / speed));
+                    }
+                }
+            }
+        }
+        return new Stats(ticks, lastTime - firstTime, System.nanoTime() - start);
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // A synthetic trading day: symbols * ticksPerSymbol random-walk ticks on random symbols, evenly
+    // spaced over 6.5 hours.
+    public static void generate(Path file, int symbols, int ticksPerSymbol, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] price = new int[symbols];
+        for (int s = 0; s < symbols; s++) price[s] = 1_000 + random.nextInt(100_000);
+        long ticks = (long) symbols * ticksPerSymbol;
+        long step = Math.max(1, 23_400_000_000_000L / Math.max(1, ticks)); // 6.5 h in ns, spread evenly
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            for (long t = 0; t < ticks; t++) {
+                int s = random.nextInt(symbols);
+                price[s] = Math.max(1, price[s] + random.nextInt(-50, 51));
+                out.writeLong(t * step);
+                out.writeInt(s);
+                out.writeInt(price[s]);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 4 && args[0].equals("generate")) {
+            generate(Paths.get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), 42);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("replay")) {
+            double speed = args.length > 2 ? Double.parseDouble(args[2]) : Double.POSITIVE_INFINITY;
+            ProfitTracker.Symbols tracker = new ProfitTracker.Symbols(1 << 12);
+            Stats stats = replay(Paths.get(args[1]), tracker, speed);
+            System.out.printf("%d ticks in %.1f ms: %.1f M ticks/s, %.0fx real time, total profit %d%n",
+                    stats.ticks, stats.elapsedNanos / 1e6, stats.ticksPerSecond() / 1e6, stats.speedup(), tracker.totalProfit());
+            return;
+        }
+        System.err.println("usage: TickReplay generate <file> <symbols> <ticksPerSymbol> | replay <file> [speed]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,34 @@
+package algorithms;
+import java.util.HashMap;
+import java.util.Map;
+
+// TwoSum: indices of the two numbers that add up to target, in one pass over the array.
+public final class TwoSum {
+
+    private TwoSum() {}
+
+    public static int[] twoSum(int[] nums, int target) {
+        IntIntMap indexOf = new IntIntMap(nums.length); // sized once: no rehash, no boxing per element
+        for (int i = 0; i < nums.length; i++) {
+            int j = indexOf.get(target - nums[i], -1);
+            if (j >= 0) {
+                return new int[] { j, i };
+            }
+            indexOf.put(nums[i], i);
+        }
+        throw new IllegalArgumentException("No two sum solution");
+    }
+
+    // Original HashMap<Integer, Integer> version, kept as the benchmark reference.
+    public static int[] twoSumBoxed(int[] nums, int target) {
+        Map<Integer, Integer> numMap = new HashMap<>();
+        for (int i = 0; i < nums.length; i++) {
+            int diff = target - nums[i];
+            if (numMap.containsKey(diff)) {
+                return new int[] { numMap.get(diff), i };
+            }
+            numMap.put(nums[i], i);
+        }
+        throw new IllegalArgumentException("No two sum solution");
+    }
+}
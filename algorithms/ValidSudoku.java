@@ -0,0 +1,211 @@
+package algorithms;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+// ValidSudoku: true if no filled cell ('1'-'9') repeats within its row, column or 3x3 box.
+// Empty cells are '.'; the board does not have to be solvable. Any other character makes the
+// board invalid.
+//
+// Seen digits are bits, so a board is checked without allocating:
+//   row     9 bits, cleared at the start of each row
+//   boxes   27 bits: the three boxes of the current band of rows, cleared every third row
+//   columns 81 bits (column * 9 + digit), split over two longs
+//
+// Bulk input is a batch of boards stored back to back, BOARD_BYTES per board, row-major, one
+// ASCII byte per cell ('1'-'9', '.' or '0' for empty): a byte[] in memory, or a file of any size
+// that is memory-mapped a segment at a time.
+public final class ValidSudoku {
+
+    public static final int BOARD_BYTES = 81;
+
+    private static final int PARALLEL_GRAIN = 4096;      // boards per fork-join leaf (~330 KB)
+    private static final int COPY_BOARDS = 1024;         // boards copied out of a mapping at once
+    private static final int SEGMENT_BOARDS = 1 << 20;   // boards per mapped segment (~81 MB)
+
+    private ValidSudoku() {}
+
+    public static boolean isValidSudoku(char[][] board) {
+        int box = 0;
+        long colsLo = 0, colsHi = 0;
+        for (int r = 0; r < 9; r++) {
+            if (r % 3 == 0) box = 0;
+            int row = 0;
+            char[] cells = board[r];
+            for (int c = 0; c < 9; c++) {
+                char val = cells[c];
+                if (val == '.') continue;
+                int d = val - '1';
+                if (d < 0 || d > 8) return false;
+
+                int rowBit = 1 << d;
+                int boxBit = 1 << ((c / 3) * 9 + d);
+                int col = c * 9 + d;
+                if ((row & rowBit) != 0 || (box & boxBit) != 0) return false;
+                row |= rowBit;
+                box |= boxBit;
+                if (col < 64) {
+                    if ((colsLo & (1L << col)) != 0) return false;
+                    colsLo |= 1L << col;
+                } else {
+                    if ((colsHi & (1L << col)) != 0) return false; // shift uses col - 64
+                    colsHi |= 1L << col;
+                }
+            }
+        }
+        return true;
+    }
+
+    // The board at boards[offset, offset + BOARD_BYTES)
+    public static boolean isValidSudoku(byte[] boards, int offset) {
+        int box = 0;
+        long colsLo = 0, colsHi = 0;
+        for (int r = 0; r < 9; r++) {
+            if (r % 3 == 0) box = 0;
+            int row = 0;
+            int base = offset + r * 9;
+            for (int c = 0; c < 9; c++) {
+                byte val = boards[base + c];
+                if (val == '.' || val == '0') continue;
+                int d = val - '1';
+                if (d < 0 || d > 8) return false;
+
+                int rowBit = 1 << d;
+                int boxBit = 1 << ((c / 3) * 9 + d);
+                int col = c * 9 + d;
+                if ((row & rowBit) != 0 || (box & boxBit) != 0) return false;
+                row |= rowBit;
+                box |= boxBit;
+                if (col < 64) {
+                    if ((colsLo & (1L << col)) != 0) return false;
+                    colsLo |= 1L << col;
+                } else {
+                    if ((colsHi & (1L << col)) != 0) return false;
+                    colsHi |= 1L << col;
+                }
+            }
+        }
+        return true;
+    }
+
+    // --- Batches ---
+
+    // Number of boards in a batch of this many bytes
+    public static int boardCount(byte[] boards) {
+        if (boards.length % BOARD_BYTES != 0) {
+            throw new IllegalArgumentException("Batch length " + boards.length + " is not a multiple of " + BOARD_BYTES);
+        }
+        return boards.length / BOARD_BYTES;
+    }
+
+    // Checks every board; valid (may be null) gets one flag per board. Returns the number of valid boards.
+    public static int validate(byte[] boards, boolean[] valid) {
+        return validate(boards, 0, boardCount(boards), valid);
+    }
+
+    // Boards [from, to) of the batch; flags go to valid[from, to)
+    public static int validate(byte[] boards, int from, int to, boolean[] valid) {
+        int count = 0;
+        for (int b = from; b < to; b++) {
+            boolean ok = isValidSudoku(boards, b * BOARD_BYTES);
+            if (valid != null) valid[b] = ok;
+            count += ok ? 1 : 0;
+        }
+        return count;
+    }
+
+    public static int validateParallel(byte[] boards, boolean[] valid) {
+        return validateParallel(boards, valid, ForkJoinPool.commonPool());
+    }
+
+    public static int validateParallel(byte[] boards, boolean[] valid, ForkJoinPool pool) {
+        int n = boardCount(boards);
+        if (n <= PARALLEL_GRAIN) return validate(boards, 0, n, valid);
+        LongAdder count = new LongAdder();
+        Parallel.forEachRange(pool, 0, n, PARALLEL_GRAIN, (from, to) -> count.add(validate(boards, from, to, valid)));
+        return count.intValue();
+    }
+
+    // Checks every board of a batch file, mapping it a segment at a time; returns the number of
+    // valid boards. invalid (may be null) gets the index of each invalid board: in file order when
+    // pool is null, otherwise from pool threads in any order, so it must be thread-safe.
+    public static long validate(Path file, LongConsumer invalid, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % BOARD_BYTES != 0) {
+                throw new IOException(file + " is " + size + " bytes, not a multiple of " + BOARD_BYTES);
+            }
+            long boards = size / BOARD_BYTES;
+            long count = 0;
+            for (long first = 0; first < boards; first += SEGMENT_BOARDS) {
+                int n = (int) Math.min(SEGMENT_BOARDS, boards - first);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, first * BOARD_BYTES, (long) n * BOARD_BYTES);
+                if (pool == null || n <= PARALLEL_GRAIN) {
+                    count += validateMapped(segment, first, 0, n, invalid);
+                } else {
+                    long segmentFirst = first;
+                    LongAdder segmentCount = new LongAdder();
+                    Parallel.forEachRange(pool, 0, n, PARALLEL_GRAIN,
+                            (from, to) -> segmentCount.add(validateMapped(segment, segmentFirst, from, to, invalid)));
+                    count += segmentCount.sum();
+                }
+            }
+            return count;
+        }
+    }
+
+    // Boards [from, to) of one mapped segment, copied out in blocks so the checks run on a byte[]
+    private static int validateMapped(MappedByteBuffer segment, long segmentFirst, int from, int to, LongConsumer invalid) {
+        byte[] block = new byte[Math.min(COPY_BOARDS, to - from) * BOARD_BYTES];
+        int count = 0;
+        for (int b = from; b < to; b += COPY_BOARDS) {
+            int n = Math.min(COPY_BOARDS, to - b);
+            segment.get(b * BOARD_BYTES, block, 0, n * BOARD_BYTES); // absolute: safe to share across threads
+            for (int i = 0; i < n; i++) {
+                if (isValidSudoku(block, i * BOARD_BYTES)) {
+                    count++;
+                } else if (invalid != null) {
+                    invalid.accept(segmentFirst + b + i);
+                }
+            }
+        }
+        return count;
+    }
+
+    // Original HashSet version, kept as the benchmark reference.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static boolean isValidSudokuBoxed(char[][] board) {
+        Set<Character>[] rows = new HashSet[9];
+        Set<Character>[] cols = new HashSet[9];
+        Set<Character>[] boxes = new HashSet[9];
+
+        for (int i = 0; i < 9; i++) {
+            rows[i] = new HashSet<>();
+            cols[i] = new HashSet<>();
+            boxes[i] = new HashSet<>();
+        }
+
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                char val = board[r][c];
+                if (val == '.') continue;
+
+                int boxIndex = (r / 3) * 3 + (c / 3);
+                if (rows[r].contains(val) || cols[c].contains(val) || boxes[boxIndex].contains(val)) {
+                    return false;
+                }
+                rows[r].add(val);
+                cols[c].add(val);
+                boxes[boxIndex].add(val);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package algorithms;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// VectorKernels: Vector API bodies of singleNumber, moveZeroes and maxProfit. Only reached
+// through the *Vector methods of those classes, and only when Vectorized.AVAILABLE.
+final class VectorKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {}
+
+    static int xor(int[] nums) {
+        int length = SPECIES.length();
+        int bound = SPECIES.loopBound(nums.length);
+        IntVector acc = IntVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += length) {
+            acc = acc.lanewise(VectorOperators.XOR, IntVector.fromArray(SPECIES, nums, i));
+        }
+        int result = acc.reduceLanes(VectorOperators.XOR);
+        for (; i < nums.length; i++) {
+            result ^= nums[i];
+        }
+        return result;
+    }
+
+    // JDK 17 has no lane compress, so whole vectors are handled on the two cheap cases: no zeros
+    // (stored as-is at the write position) and all zeros (skipped). Mixed vectors go lane by lane.
+    // Stores never pass the read position, so they only overwrite values already loaded.
+    static void moveZeroes(int[] nums) {
+        int length = SPECIES.length();
+        int bound = SPECIES.loopBound(nums.length);
+        int write = 0;
+        int i = 0;
+        for (; i < bound; i += length) {
+            IntVector v = IntVector.fromArray(SPECIES, nums, i);
+            VectorMask<Integer> nonZero = v.compare(VectorOperators.NE, 0);
+            if (nonZero.allTrue()) {
+                v.intoArray(nums, write);
+                write += length;
+            } else if (nonZero.anyTrue()) {
+                for (int lane = 0; lane < length; lane++) {
+                    int value = v.lane(lane);
+                    if (value != 0) {
+                        nums[write++] = value;
+                    }
+                }
+            }
+        }
+        for (; i < nums.length; i++) {
+            if (nums[i] != 0) {
+                nums[write++] = nums[i];
+            }
+        }
+        IntVector zero = IntVector.zero(SPECIES);
+        int zeroBound = write + SPECIES.loopBound(nums.length - write);
+        for (; write < zeroBound; write += length) {
+            zero.intoArray(nums, write);
+        }
+        for (; write < nums.length; write++) {
+            nums[write] = 0;
+        }
+    }
+
+    // Sum of prices[i] - prices[i - 1] over the days the price rose: the conditional add becomes a
+    // masked add. The mask comes from the comparison, not the sign of the difference, which can
+    // overflow; this keeps the wrapped result identical to the scalar loop.
+    static int deltaSum(int[] prices) {
+        if (prices.length < 2) return 0;
+        int length = SPECIES.length();
+        int bound = 1 + SPECIES.loopBound(prices.length - 1);
+        IntVector acc = IntVector.zero(SPECIES);
+        int i = 1;
+        for (; i < bound; i += length) {
+            IntVector today = IntVector.fromArray(SPECIES, prices, i);
+            IntVector yesterday = IntVector.fromArray(SPECIES, prices, i - 1);
+            acc = acc.add(today.sub(yesterday), today.compare(VectorOperators.GT, yesterday));
+        }
+        int result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < prices.length; i++) {
+            if (prices[i] > prices[i - 1]) {
+                result += prices[i] - prices[i - 1];
+            }
+        }
+        return result;
+    }
+}
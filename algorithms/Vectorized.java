@@ -0,0 +1,22 @@
+package algorithms;
+
+// Vectorized: whether the SIMD kernels in VectorKernels can run. They need the incubating
+// jdk.incubator.vector module, which is only resolved when the JVM is started with
+//   --add-modules jdk.incubator.vector
+// Without it every *Vector method falls back to the scalar loop; VectorKernels is never loaded,
+// so its missing classes cannot fail. -Dalgorithms.vector=false forces the fallback.
+//
+// Compiling this package always needs the module: javac --add-modules jdk.incubator.vector ...
+public final class Vectorized {
+
+    public static final boolean AVAILABLE = detect();
+
+    private Vectorized() {}
+
+    private static boolean detect() {
+        if (!Boolean.parseBoolean(System.getProperty("algorithms.vector", "true"))) {
+            return false;
+        }
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
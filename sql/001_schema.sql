@@ -0,0 +1,33 @@
+-- Base schema for the restaurant application.
+-- Runs unchanged on Oracle XE (12c+) and on H2 started with MODE=Oracle, e.g.
+--   java -cp h2.jar org.h2.tools.RunScript -url "jdbc:h2:./restaurantdb;MODE=Oracle" -user sa -script sql/001_schema.sql
+
+CREATE TABLE admin (
+    username VARCHAR2(50) PRIMARY KEY,
+    password VARCHAR2(100) NOT NULL
+);
+
+CREATE TABLE menu (
+    id    NUMBER PRIMARY KEY,
+    name  VARCHAR2(100) NOT NULL,
+    price NUMBER(10, 2) NOT NULL
+);
+
+CREATE TABLE bills (
+    bill_id      NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    bill_time    TIMESTAMP NOT NULL,
+    total_amount NUMBER(12, 2) NOT NULL
+);
+
+CREATE TABLE orders (
+    order_id   NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    bill_id    NUMBER NOT NULL REFERENCES bills (bill_id),
+    item_name  VARCHAR2(100) NOT NULL,
+    item_price NUMBER(10, 2) NOT NULL,
+    quantity   NUMBER NOT NULL,
+    subtotal   NUMBER(12, 2) NOT NULL
+);
+
+INSERT INTO admin (username, password) VALUES ('admin', 'admin123');
+
+COMMIT;
@@ -0,0 +1,9 @@
+-- Sequence that hands out bill ids in blocks (used when bills.idSequence=bill_id_seq).
+-- INCREMENT BY is the block size: one NEXTVAL reserves that many ids for one terminal, so
+-- bills.idBlockSize in restaurant.properties must match it.
+--
+-- On a database that already has bills, raise START WITH above SELECT MAX(bill_id) FROM bills.
+-- Every terminal sharing the database must use the same bill id source: either all of them use
+-- this sequence, or all leave bills.idSequence empty and use the IDENTITY column.
+
+CREATE SEQUENCE bill_id_seq START WITH 1 INCREMENT BY 50 NOCACHE;
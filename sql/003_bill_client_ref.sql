@@ -0,0 +1,8 @@
+-- Idempotency key for bills written from the local journal (journal.enabled=true).
+-- The replayer looks bills up by client_ref before re-sending them after a crash or outage,
+-- and the unique index stops a bill from ever being stored twice.
+-- Bills written directly (no journal) leave client_ref NULL; the index allows many NULLs.
+
+ALTER TABLE bills ADD client_ref VARCHAR2(36);
+
+CREATE UNIQUE INDEX bills_client_ref_uk ON bills (client_ref);
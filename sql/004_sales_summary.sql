@@ -0,0 +1,27 @@
+-- Pre-aggregated sales for the admin dashboard (sales.summaryTables=true).
+-- Maintained by SalesSummary in the same transaction as each bill (or group-commit batch).
+-- Daily figures and the average bill size are derived from sales_hourly (24 rows a day).
+
+CREATE TABLE sales_hourly (
+    sales_hour TIMESTAMP PRIMARY KEY,
+    revenue    NUMBER(14, 2) NOT NULL,
+    bill_count NUMBER NOT NULL
+);
+
+CREATE TABLE sales_item (
+    item_name VARCHAR2(100) PRIMARY KEY,
+    units     NUMBER NOT NULL,
+    revenue   NUMBER(14, 2) NOT NULL
+);
+
+-- Backfill from existing history (one full scan, only when this migration runs).
+-- Turn sales.summaryTables on only after this has committed.
+INSERT INTO sales_hourly (sales_hour, revenue, bill_count)
+SELECT sales_hour, SUM(total_amount), COUNT(*)
+FROM (SELECT TRUNC(bill_time) + INTERVAL '1' HOUR * EXTRACT(HOUR FROM bill_time) AS sales_hour, total_amount FROM bills)
+GROUP BY sales_hour;
+
+INSERT INTO sales_item (item_name, units, revenue)
+SELECT item_name, SUM(quantity), SUM(subtotal) FROM orders GROUP BY item_name;
+
+COMMIT;
@@ -0,0 +1,8 @@
+-- Sequence that hands out menu item ids in blocks (used when menu.idSequence=menu_id_seq).
+-- Replaces reading MAX(id) + 1 before every insert, which two admins can race on.
+-- INCREMENT BY is the block size and must match menu.idBlockSize in restaurant.properties.
+--
+-- On a database that already has menu items, raise START WITH above SELECT MAX(id) FROM menu.
+-- Every terminal sharing the database must use the same menu id source.
+
+CREATE SEQUENCE menu_id_seq START WITH 1 INCREMENT BY 20 NOCACHE;
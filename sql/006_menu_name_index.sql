@@ -0,0 +1,4 @@
+-- Index for bulk menu import (MenuImport): rows without an id are matched to existing items by
+-- name, which without this index scans the whole menu table once per imported row.
+
+CREATE INDEX menu_name_idx ON menu (name);
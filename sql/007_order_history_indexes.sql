@@ -0,0 +1,21 @@
+-- Indexes for searching order history in the admin portal (OrderHistoryPager.Filter).
+-- Without them every search, and every join from a page of bills to their order lines, reads
+-- the whole orders table.
+--   orders(bill_id, item_name)
+--                     - joining a page of bills to their lines (a foreign key Oracle does not index), and
+--                       checking a bill's lines for an item prefix without reading the rows
+--   orders(item_name) - item name prefix search (LIKE 'abc%' is an index range scan)
+--   bills(bill_time DESC, bill_id DESC)
+--                     - time range search, and reading pages newest first (the pager's order) without
+--                       sorting all bills; declared descending because H2 does not scan an index backwards
+--   bills(total_amount, bill_time, bill_id)
+--                     - bill total range search that matches few bills: the matches and the columns
+--                       they are sorted by come from the index alone
+--
+-- On a large existing database, build them ONLINE on Oracle Enterprise Edition so checkout is
+-- not blocked while they build, e.g. CREATE INDEX orders_item_name_idx ON orders (item_name) ONLINE;
+
+CREATE INDEX orders_bill_id_idx ON orders (bill_id, item_name);
+CREATE INDEX orders_item_name_idx ON orders (item_name);
+CREATE INDEX bills_bill_time_idx ON bills (bill_time DESC, bill_id DESC);
+CREATE INDEX bills_total_idx ON bills (total_amount, bill_time, bill_id);